@@ -0,0 +1,88 @@
+/*
+ * This file is part of ImageUtilities.
+ *
+ * Copyleft 2016 Mark Jeronimus. All Rights Reversed.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ImageUtilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.digitalmodular.imageutilities.resize;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import static java.lang.foreign.ValueLayout.JAVA_SHORT;
+
+/**
+ * A {@link ShortSampleBuffer} in native memory, using the foreign function and memory API. The memory is allocated
+ * in its own shared arena, so it can be accessed by all workers, and is freed as soon as the buffer is
+ * {@link #close() closed} instead of when it's garbage collected. Accessing the buffer after it's closed throws an
+ * {@link IllegalStateException}.
+ * <p>
+ * Only instantiate this class through {@link ShortSampleBuffers}, as it needs the {@code java.lang.foreign} package.
+ *
+ * @author Mark Jeronimus
+ */
+// Created 2026-10-16
+final class OffHeapShortSampleBuffer implements ShortSampleBuffer {
+	private final Arena         arena = Arena.ofShared();
+	private final MemorySegment segment;
+	private final long          length;
+
+	OffHeapShortSampleBuffer(long length) {
+		if (length < 0)
+			throw new IllegalArgumentException("length can't be negative: " + length);
+
+		this.length = length;
+
+		try {
+			segment = arena.allocate(length * Short.BYTES, Short.BYTES);
+		} catch (RuntimeException | Error ex) {
+			arena.close();
+			throw ex;
+		}
+	}
+
+	@Override
+	public long length() { return length; }
+
+	@Override
+	public short[] array() { return null; }
+
+	@Override
+	public void get(long index, short[] dst, int offset, int length) {
+		MemorySegment.copy(segment, JAVA_SHORT, index * Short.BYTES, dst, offset, length);
+	}
+
+	@Override
+	public void set(long index, short[] src, int offset, int length) {
+		MemorySegment.copy(src, offset, segment, JAVA_SHORT, index * Short.BYTES, length);
+	}
+
+	@Override
+	public void close() {
+		arena.close();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + '[' + length + ']';
+	}
+}
@@ -0,0 +1,295 @@
+/*
+ * This file is part of ImageUtilities.
+ *
+ * Copyleft 2016 Mark Jeronimus. All Rights Reversed.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ImageUtilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.digitalmodular.imageutilities.resize;
+
+import static org.digitalmodular.imageutilities.resize.SamplingDataCalculator.WEIGHT_PRECISION;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementation of the resampling loops using the (incubating) Java Vector API. Samples are widened from
+ * {@code short} to {@code float}, accumulated with fused multiply-adds, and narrowed back to {@code short}.
+ * <p>
+ * Results can differ from {@link ScalarShortResamplingKernel} by one unit in the internal 15-bit format, because
+ * fused multiply-adds skip an intermediate rounding step. With fixed-point weights, samples are widened to
+ * {@code int} instead, and the results are identical.
+ * <p>
+ * Only instantiate this class through {@link ShortResamplingKernels}, as it needs the {@code jdk.incubator.vector}
+ * module.
+ *
+ * @author Mark Jeronimus
+ */
+// Created 2026-10-16
+// Changed 2026-10-16 Added fixed-point loops
+// Changed 2026-10-16 Horizontal resampling takes the start index of each output pixel
+// Changed 2026-10-16 Horizontal resampling takes the weight offset of each output pixel
+final class VectorShortResamplingKernel implements ShortResamplingKernel {
+	private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED;
+	private static final int                  LANES         = FLOAT_SPECIES.length();
+	/** Int vectors with the same number of lanes as the float vectors. */
+	private static final VectorSpecies<Integer> INT_SPECIES =
+			VectorSpecies.of(int.class, FLOAT_SPECIES.vectorShape());
+	/** Short vectors with the same number of lanes as the float vectors. */
+	private static final VectorSpecies<Short> SHORT_SPECIES =
+			VectorSpecies.of(short.class, VectorShape.forBitSize(LANES * Short.SIZE));
+
+	/**
+	 * For each number of channels, the shuffle to broadcast each weight to all channels of a pixel.
+	 * ({@code null} when the lanes can't be divided evenly in pixels)
+	 */
+	private static final VectorShuffle<Float>[]   WEIGHT_SHUFFLES = newShuffles(5);
+	/**
+	 * For each number of channels, the shuffles that fold the lanes in halves, until every channel of a pixel is in
+	 * its own lane.
+	 */
+	private static final VectorShuffle<Float>[][] FOLD_SHUFFLES = newShuffleArrays(5);
+	/** {@link #WEIGHT_SHUFFLES} for int vectors. */
+	private static final VectorShuffle<Integer>[]   INT_WEIGHT_SHUFFLES = newShuffles(5);
+	/** {@link #FOLD_SHUFFLES} for int vectors. */
+	private static final VectorShuffle<Integer>[][] INT_FOLD_SHUFFLES   = newShuffleArrays(5);
+	private static final int                        ROUNDING            = 1 << (WEIGHT_PRECISION - 1);
+
+	static {
+		for (int numChannels = 1; numChannels <= 4; numChannels++) {
+			if (LANES % numChannels != 0)
+				continue;
+
+			int[] weightMap = new int[LANES];
+			for (int i = 0; i < LANES; i++)
+				weightMap[i] = i / numChannels;
+			WEIGHT_SHUFFLES[numChannels] = VectorShuffle.fromArray(FLOAT_SPECIES, weightMap, 0);
+			INT_WEIGHT_SHUFFLES[numChannels] = VectorShuffle.fromArray(INT_SPECIES, weightMap, 0);
+
+			int numFolds = Integer.numberOfTrailingZeros(LANES / numChannels);
+			FOLD_SHUFFLES[numChannels] = newShuffles(numFolds);
+			INT_FOLD_SHUFFLES[numChannels] = newShuffles(numFolds);
+			for (int i = 0; i < numFolds; i++) {
+				FOLD_SHUFFLES[numChannels][i] = VectorShuffle.iota(FLOAT_SPECIES, LANES >> (i + 1), 1, true);
+				INT_FOLD_SHUFFLES[numChannels][i] = VectorShuffle.iota(INT_SPECIES, LANES >> (i + 1), 1, true);
+			}
+		}
+	}
+
+	// Generic arrays can't be created directly
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static <E> VectorShuffle<E>[] newShuffles(int length) {
+		return new VectorShuffle[length];
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static <E> VectorShuffle<E>[][] newShuffleArrays(int length) {
+		return new VectorShuffle[length][];
+	}
+
+	private final ShortResamplingKernel fallback = new ScalarShortResamplingKernel();
+
+	@Override
+	public void resampleHorizontally(short[] in, int inOffset, short[] out, int outOffset,
+	                                 int dstWidth, int numChannels,
+	                                 int numSamples, int[] starts, int[] weightOffsets, float[] weights) {
+		VectorShuffle<Float> weightShuffle   = WEIGHT_SHUFFLES[numChannels];
+		int                  pixelsPerVector = LANES / numChannels;
+		if (weightShuffle == null || numSamples < pixelsPerVector) {
+			// Pixels don't fit the vectors, or the resampling curve is too small.
+			fallback.resampleHorizontally(in, inOffset, out, outOffset,
+			                              dstWidth, numChannels, numSamples, starts, weightOffsets, weights);
+			return;
+		}
+
+		VectorShuffle<Float>[] foldShuffles = FOLD_SHUFFLES[numChannels];
+		int                    vectorBound  = numSamples - numSamples % pixelsPerVector;
+
+		for (int x = 0; x < dstWidth; x++) {
+			int index = weightOffsets[x];
+			int u     = outOffset + x * numChannels;
+
+			// The input samples are contiguous
+			int         p   = inOffset + starts[x];
+			FloatVector sum = FloatVector.zero(FLOAT_SPECIES);
+			int         i   = 0;
+			for (; i < vectorBound; i += pixelsPerVector) {
+				FloatVector samples = (FloatVector)ShortVector.fromArray(SHORT_SPECIES, in, p + i * numChannels)
+				                                              .convertShape(VectorOperators.S2F, FLOAT_SPECIES, 0);
+				FloatVector weight  = loadWeights(weights, index + i).rearrange(weightShuffle);
+				sum = samples.fma(weight, sum);
+			}
+
+			// Add the lanes of each channel together
+			for (VectorShuffle<Float> shuffle : foldShuffles)
+				sum = sum.add(sum.rearrange(shuffle));
+
+			for (int c = 0; c < numChannels; c++) {
+				float sample = sum.lane(c);
+				for (int j = i; j < numSamples; j++)
+					sample += in[p + j * numChannels + c] * weights[index + j];
+				out[u + c] = (short)sample;
+			}
+		}
+	}
+
+	/**
+	 * Loads as many weights as there are lanes, without reading beyond the end of the array.
+	 */
+	private static FloatVector loadWeights(float[] weights, int index) {
+		if (index + LANES <= weights.length)
+			return FloatVector.fromArray(FLOAT_SPECIES, weights, index);
+		else
+			return FloatVector.fromArray(FLOAT_SPECIES, weights, index, FLOAT_SPECIES.indexInRange(index, weights.length));
+	}
+
+	@Override
+	public void resampleVertically(short[] in, short[] out, int outOffset,
+	                               int width, int numChannels,
+	                               int numSamples, int[] indices, float[] weights) {
+		// Vertically, channels don't need to be distinguished: a row is resampled as one long run of samples.
+		int rowLength   = width * numChannels;
+		int vectorBound = SHORT_SPECIES.loopBound(rowLength);
+
+		FloatVector[] weightVectors = new FloatVector[numSamples];
+		for (int i = 0; i < numSamples; i++)
+			weightVectors[i] = FloatVector.broadcast(FLOAT_SPECIES, weights[i]);
+
+		int x = 0;
+		for (; x < vectorBound; x += LANES) {
+			FloatVector sum = FloatVector.zero(FLOAT_SPECIES);
+			for (int i = 0; i < numSamples; i++) {
+				FloatVector samples = (FloatVector)ShortVector.fromArray(SHORT_SPECIES, in, x + indices[i])
+				                                              .convertShape(VectorOperators.S2F, FLOAT_SPECIES, 0);
+				sum = samples.fma(weightVectors[i], sum);
+			}
+
+			((ShortVector)sum.convertShape(VectorOperators.F2S, SHORT_SPECIES, 0)).intoArray(out, outOffset + x);
+		}
+
+		for (; x < rowLength; x++) {
+			float sample = 0;
+			for (int i = 0; i < numSamples; i++)
+				sample += in[x + indices[i]] * weights[i];
+			out[outOffset + x] = (short)sample;
+		}
+	}
+
+	@Override
+	public void resampleHorizontally(short[] in, int inOffset, short[] out, int outOffset,
+	                                 int dstWidth, int numChannels,
+	                                 int numSamples, int[] starts, int[] weightOffsets, int[] weights) {
+		VectorShuffle<Integer> weightShuffle   = INT_WEIGHT_SHUFFLES[numChannels];
+		int                    pixelsPerVector = LANES / numChannels;
+		if (weightShuffle == null || numSamples < pixelsPerVector) {
+			// Pixels don't fit the vectors, or the resampling curve is too small.
+			fallback.resampleHorizontally(in, inOffset, out, outOffset,
+			                              dstWidth, numChannels, numSamples, starts, weightOffsets, weights);
+			return;
+		}
+
+		VectorShuffle<Integer>[] foldShuffles = INT_FOLD_SHUFFLES[numChannels];
+		int                      vectorBound  = numSamples - numSamples % pixelsPerVector;
+
+		for (int x = 0; x < dstWidth; x++) {
+			int index = weightOffsets[x];
+			int u     = outOffset + x * numChannels;
+
+			// The input samples are contiguous
+			int       p   = inOffset + starts[x];
+			IntVector sum = IntVector.zero(INT_SPECIES);
+			int       i   = 0;
+			for (; i < vectorBound; i += pixelsPerVector) {
+				IntVector samples = (IntVector)ShortVector.fromArray(SHORT_SPECIES, in, p + i * numChannels)
+				                                          .convertShape(VectorOperators.S2I, INT_SPECIES, 0);
+				IntVector weight  = loadWeights(weights, index + i).rearrange(weightShuffle);
+				sum = sum.add(samples.mul(weight));
+			}
+
+			// Add the lanes of each channel together
+			for (VectorShuffle<Integer> shuffle : foldShuffles)
+				sum = sum.add(sum.rearrange(shuffle));
+
+			for (int c = 0; c < numChannels; c++) {
+				int sample = sum.lane(c) + ROUNDING;
+				for (int j = i; j < numSamples; j++)
+					sample += in[p + j * numChannels + c] * weights[index + j];
+				out[u + c] = (short)(sample >> WEIGHT_PRECISION);
+			}
+		}
+	}
+
+	/**
+	 * Loads as many weights as there are lanes, without reading beyond the end of the array.
+	 */
+	private static IntVector loadWeights(int[] weights, int index) {
+		if (index + LANES <= weights.length)
+			return IntVector.fromArray(INT_SPECIES, weights, index);
+		else
+			return IntVector.fromArray(INT_SPECIES, weights, index, INT_SPECIES.indexInRange(index, weights.length));
+	}
+
+	@Override
+	public void resampleVertically(short[] in, short[] out, int outOffset,
+	                               int width, int numChannels,
+	                               int numSamples, int[] indices, int[] weights) {
+		// Vertically, channels don't need to be distinguished: a row is resampled as one long run of samples.
+		int rowLength   = width * numChannels;
+		int vectorBound = SHORT_SPECIES.loopBound(rowLength);
+
+		IntVector[] weightVectors = new IntVector[numSamples];
+		for (int i = 0; i < numSamples; i++)
+			weightVectors[i] = IntVector.broadcast(INT_SPECIES, weights[i]);
+
+		IntVector rounding = IntVector.broadcast(INT_SPECIES, ROUNDING);
+
+		int x = 0;
+		for (; x < vectorBound; x += LANES) {
+			IntVector sum = rounding;
+			for (int i = 0; i < numSamples; i++) {
+				IntVector samples = (IntVector)ShortVector.fromArray(SHORT_SPECIES, in, x + indices[i])
+				                                          .convertShape(VectorOperators.S2I, INT_SPECIES, 0);
+				sum = sum.add(samples.mul(weightVectors[i]));
+			}
+
+			((ShortVector)sum.lanewise(VectorOperators.ASHR, WEIGHT_PRECISION)
+			                 .convertShape(VectorOperators.I2S, SHORT_SPECIES, 0)).intoArray(out, outOffset + x);
+		}
+
+		for (; x < rowLength; x++) {
+			int sample = ROUNDING;
+			for (int i = 0; i < numSamples; i++)
+				sample += in[x + indices[i]] * weights[i];
+			out[outOffset + x] = (short)(sample >> WEIGHT_PRECISION);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + '(' + FLOAT_SPECIES + ')';
+	}
+}
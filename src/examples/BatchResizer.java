@@ -40,9 +40,6 @@ public class BatchResizer {
 		for (File file : files) {
 			if (file.isFile())
 				resizeImage(file, new File(dstPath, file.getName()), targetSize);
-
-			// TODO find a better way to prevent out-of-heap error
-			System.gc();
 		}
 	}
 
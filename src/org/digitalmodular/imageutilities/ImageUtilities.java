@@ -35,7 +35,9 @@ import java.awt.image.ColorModel;
 import java.awt.image.ComponentColorModel;
 import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferInt;
+import java.awt.image.PixelInterleavedSampleModel;
 import java.awt.image.Raster;
+import java.awt.image.SampleModel;
 import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.IOException;
@@ -174,19 +176,39 @@ public enum ImageUtilities {
 	public static BufferedImage createByteImage(int width, int height, int pixelStride,
 	                                            int colorType,
 	                                            boolean hasAlpha, boolean isAlphaPre) {
+		return createImage(width, height, pixelStride, colorType, hasAlpha, isAlphaPre, DataBuffer.TYPE_BYTE);
+	}
+
+	/**
+	 * Creates an image with interleaved samples of the specified {@link DataBuffer} type. The samples are stored in
+	 * reverse order of the bands, like {@link BufferedImage#TYPE_4BYTE_ABGR}.
+	 */
+	public static BufferedImage createImage(int width, int height, int pixelStride,
+	                                        int colorType,
+	                                        boolean hasAlpha, boolean isAlphaPre,
+	                                        int dataType) {
 		ColorModel outModel = new ComponentColorModel(
 				ColorSpace.getInstance(colorType),
 				hasAlpha, isAlphaPre,
 				hasAlpha ? Transparency.TRANSLUCENT : Transparency.OPAQUE,
-				DataBuffer.TYPE_BYTE);
+				dataType);
 
 		int[] channelOffsets = new int[pixelStride];
 		for (int i = 0; i < pixelStride; i++) {
 			channelOffsets[i] = pixelStride - i - 1;
 		}
-		WritableRaster outRaster = Raster.createInterleavedRaster(
-				DataBuffer.TYPE_BYTE, width, height, width * pixelStride, pixelStride,
-				channelOffsets, null);
+
+		WritableRaster outRaster;
+		if (dataType == DataBuffer.TYPE_BYTE || dataType == DataBuffer.TYPE_USHORT) {
+			outRaster = Raster.createInterleavedRaster(
+					dataType, width, height, width * pixelStride, pixelStride,
+					channelOffsets, null);
+		} else {
+			// Raster doesn't have a factory method for the other types
+			SampleModel sampleModel = new PixelInterleavedSampleModel(
+					dataType, width, height, pixelStride, width * pixelStride, channelOffsets);
+			outRaster = Raster.createWritableRaster(sampleModel, null);
+		}
 
 		return new BufferedImage(outModel, outRaster, isAlphaPre, null);
 	}
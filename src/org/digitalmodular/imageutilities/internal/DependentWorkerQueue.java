@@ -52,10 +52,27 @@ import java.util.concurrent.LinkedBlockingQueue;
  * @author Mark Jeronimus
  */
 // Created 2015-08-28
+// Changed 2026-10-16 Copy constructor
 public class DependentWorkerQueue<V> {
 	private final Collection<List<Callable<V>>>    dependencyQueue = new LinkedList<>();
 	private final BlockingQueue<DependentCallable> eligibleQueue   = new LinkedBlockingQueue<>();
 
+	public DependentWorkerQueue() { }
+
+	/**
+	 * Creates a queue with the same workers and dependencies as another queue, to run the same workers again. Running
+	 * a queue consumes it, so the other queue can be copied again as long as it doesn't run itself.
+	 */
+	public DependentWorkerQueue(DependentWorkerQueue<V> queue) {
+		synchronized (queue) {
+			for (List<Callable<V>> dependencyList : queue.dependencyQueue)
+				dependencyQueue.add(new ArrayList<>(dependencyList));
+
+			for (DependentCallable callable : queue.eligibleQueue)
+				eligibleQueue.add(new DependentCallable(callable.worker));
+		}
+	}
+
 	public synchronized void clear() {
 		dependencyQueue.clear();
 		eligibleQueue.clear();
@@ -28,22 +28,30 @@ package org.digitalmodular.imageutilities.resize;
 
 import java.awt.Graphics2D;
 import java.awt.Image;
+import java.awt.color.ColorSpace;
 import java.awt.image.BufferedImage;
 import java.awt.image.BufferedImageOp;
 import java.awt.image.ColorConvertOp;
 import java.awt.image.DataBuffer;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.SampleModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import static java.util.Objects.requireNonNull;
@@ -52,6 +60,8 @@ import org.digitalmodular.imageutilities.ImageUtilities;
 import org.digitalmodular.imageutilities.internal.DependentWorkerQueue;
 import org.digitalmodular.imageutilities.resize.filter.Lanczos3ResamplingCurve;
 import org.digitalmodular.imageutilities.resize.filter.ResamplingCurve;
+import static org.digitalmodular.imageutilities.resize.SamplingDataCalculator.SamplingData;
+import static org.digitalmodular.imageutilities.resize.SamplingDataCalculator.calculateNumSamples;
 
 /**
  * Superclass for all algorithms that can resize an image using high-quality resampling filters and parallel processing.
@@ -60,19 +70,56 @@ import org.digitalmodular.imageutilities.resize.filter.ResamplingCurve;
  */
 // Created 2015-08-22
 // Changed 2017-07-18 Extracted some code to SamplingDataCalculator
+// Changed 2026-10-16 Pulled up the resampling order, sub-sampling and worker queue code from ImageResamplerShort
+// Changed 2026-10-16 Partial output images, and fixed the gray+alpha check depending on the previous image
+// Changed 2026-10-16 Cached sub-sampling
+// Changed 2026-10-16 Copy constructor sharing the executor, and a completion service per run
+// Changed 2026-10-16 One shared executor for all resamplers, pluggable executor, and closeable
+// Changed 2026-10-16 Workers of several resizes in one queue
 abstract class AbstractImageResampler extends AbstractImageResizer<BufferedImage> implements ImageResampler {
 	protected static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
 
-	private final BlockingQueue<Runnable> workQueue = new LinkedBlockingQueue<>();
-	private final ThreadPoolExecutor      executor  = new ThreadPoolExecutor(
-			AVAILABLE_PROCESSORS, AVAILABLE_PROCESSORS, 60L, TimeUnit.MILLISECONDS, workQueue);
-	private final CompletionService<Void> service   = new ExecutorCompletionService<>(executor);
+	private static ThreadPoolExecutor sharedExecutor = null;
 
-	protected ResamplingCurve filter     = Lanczos3ResamplingCurve.INSTANCE;
-	protected int             numThreads = 0;
+	/** {@code null} means the {@link #getSharedExecutor() shared executor}. */
+	private volatile Executor executor = null;
+	private volatile boolean  closed   = false;
 
-	protected AbstractImageResampler() {
-		executor.allowCoreThreadTimeOut(true);
+	protected enum ResamplingOrder {
+		NONE,
+		X_ONLY,
+		Y_ONLY,
+		X_FIRST,
+		Y_FIRST
+	}
+
+	/**
+	 * Marker for workers that need rows from bordering strips of the previous step, i.e. vertical resamplers.
+	 */
+	protected interface StripOverlappingWorker extends Callable<Void> { }
+
+	protected ResamplingCurve   filter            = Lanczos3ResamplingCurve.INSTANCE;
+	protected int               numThreads        = 0;
+	protected SamplingDataCache samplingDataCache = SamplingDataCache.getShared();
+
+	protected SamplingData horizontalSamplingData = null;
+	protected SamplingData verticalSamplingData   = null;
+
+	protected AbstractImageResampler() { }
+
+	/**
+	 * Creates a resampler with the same settings as another one, but without its working data. The executor is
+	 * shared, so concurrent resizes of both together use at most as many threads as one.
+	 */
+	protected AbstractImageResampler(AbstractImageResampler settings) {
+		super(settings);
+		if (settings.closed)
+			throw new IllegalStateException("Resampler is closed");
+
+		executor = settings.executor;
+		filter = settings.filter;
+		numThreads = settings.numThreads;
+		samplingDataCache = settings.samplingDataCache;
 	}
 
 	@Override
@@ -91,6 +138,63 @@ abstract class AbstractImageResampler extends AbstractImageResizer<BufferedImage
 		this.numThreads = numThreads;
 	}
 
+	/**
+	 * Returns the executor that is shared by all resamplers that don't have an executor of their own. It has as many
+	 * threads as there are processors, so it's the budget for the total parallelism of all concurrent resizes. The
+	 * threads are daemon threads that end when the executor has been idle for a minute, so it never has to be shut
+	 * down.
+	 */
+	public static synchronized Executor getSharedExecutor() {
+		if (sharedExecutor == null) {
+			AtomicInteger threadCount = new AtomicInteger();
+
+			sharedExecutor = new ThreadPoolExecutor(
+					AVAILABLE_PROCESSORS, AVAILABLE_PROCESSORS, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+					runnable -> {
+						Thread thread = new Thread(runnable, "ImageResampler-" + threadCount.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					});
+			sharedExecutor.allowCoreThreadTimeOut(true);
+		}
+
+		return sharedExecutor;
+	}
+
+	public Executor getExecutor() {
+		Executor executor = this.executor;
+		return executor != null ? executor : getSharedExecutor();
+	}
+
+	/**
+	 * Set the executor to run the workers on, or {@code null} for the {@link #getSharedExecutor() shared executor}.
+	 * Resamplers that are given the same executor share its threads, e.g. a bounded pool, {@code
+	 * ForkJoinPool.commonPool()} or {@code Executors.newVirtualThreadPerTaskExecutor()}. Each resize still submits at
+	 * most {@link #getNumThreads()} workers at a time. The executor isn't shut down by this resampler.
+	 */
+	public void setExecutor(Executor executor) { this.executor = executor; }
+
+	/**
+	 * Closes this resampler, after which it can't resize anymore. Resizes that are running at the time will finish.
+	 * Neither the shared executor nor an executor that was {@link #setExecutor(Executor) set} are shut down, as they
+	 * can be in use by other resamplers.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		executor = null;
+	}
+
+	public SamplingDataCache getSamplingDataCache() { return samplingDataCache; }
+
+	/**
+	 * Set the cache to look up the sub-sampling in, or {@code null} to calculate it for each resize.
+	 * Default is the {@link SamplingDataCache#getShared() shared cache}.
+	 */
+	public void setSamplingDataCache(SamplingDataCache samplingDataCache) {
+		this.samplingDataCache = samplingDataCache;
+	}
+
 	@Override
 	public boolean imageIsCompatible(Image image) {
 		if (!(image instanceof BufferedImage))
@@ -114,9 +218,16 @@ abstract class AbstractImageResampler extends AbstractImageResizer<BufferedImage
 		// Check if the image is gray+alpha, which surprisingly is a standard format without a corresponding TYPE_
 		int dataType = bufferedImage.getRaster().getDataBuffer().getDataType();
 
-		return type == BufferedImage.TYPE_CUSTOM
-		       && dataType == DataBuffer.TYPE_BYTE
-		       && hasAlpha;
+		if (type != BufferedImage.TYPE_CUSTOM
+		    || dataType != DataBuffer.TYPE_BYTE
+		    || !bufferedImage.getColorModel().hasAlpha())
+			return false;
+
+		// The alpha has to come first, like in the other types.
+		SampleModel sampleModel = bufferedImage.getSampleModel();
+		return sampleModel instanceof PixelInterleavedSampleModel
+		       && Arrays.equals(((PixelInterleavedSampleModel)sampleModel).getBandOffsets(), new int[]{1, 0})
+		       && ((PixelInterleavedSampleModel)sampleModel).getScanlineStride() == bufferedImage.getWidth() * 2;
 	}
 
 	@Override
@@ -162,8 +273,179 @@ abstract class AbstractImageResampler extends AbstractImageResizer<BufferedImage
 		return img;
 	}
 
+	protected int getNumStrips() {
+		return getNumThreads() == 0 ? AVAILABLE_PROCESSORS : getNumThreads();
+	}
+
+	protected ResamplingOrder determineResampleOrder() {
+		boolean doX = srcWidth != dstWidth || offsetX != 0;
+		boolean doY = srcHeight != dstHeight || offsetY != 0;
+
+		ResamplingOrder order;
+		if (!doX && !doY)
+			order = ResamplingOrder.NONE;
+		else if (!doY)
+			order = ResamplingOrder.X_ONLY;
+		else if (!doX)
+			order = ResamplingOrder.Y_ONLY;
+		else {
+			// Calculate the work effort of each possible sub-process.
+			// The +1 tweak comes from the store operation for each resampled pixel.
+			long effortXFirst  = (long)srcHeight * dstWidth * (calculateNumSamples(filter, widthScaleFactor) + 1);
+			long effortYSecond = (long)dstWidth * dstHeight * (calculateNumSamples(filter, heightScaleFactor) + 1);
+			long effortYFirst  = (long)srcWidth * dstHeight * (calculateNumSamples(filter, heightScaleFactor) + 1);
+			long effortXSecond = (long)dstHeight * dstWidth * (calculateNumSamples(filter, widthScaleFactor) + 1);
+
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest("Efforts: " + effortXFirst + '+' + effortYSecond +
+				                          '=' + (effortXFirst + effortYSecond) +
+				                          " <> " + effortYFirst + '+' + effortXSecond +
+				                          '=' + (effortYFirst + effortXSecond));
+
+			if (effortXFirst + effortYSecond <= effortYFirst + effortXSecond)
+				order = ResamplingOrder.X_FIRST;
+			else
+				order = ResamplingOrder.Y_FIRST;
+		}
+
+		if (Logger.getGlobal().isLoggable(Level.FINEST))
+			Logger.getGlobal().finest("Resampling order: " + order);
+
+		return order;
+	}
+
+	protected BufferedImage createCompatibleOutputImage(BufferedImage src) {
+		return createCompatibleOutputImage(src, dstWidth, dstHeight);
+	}
+
+	/**
+	 * Like {@link #createCompatibleOutputImage(BufferedImage)}, for when only part of the output image is created at a
+	 * time.
+	 */
+	protected BufferedImage createCompatibleOutputImage(BufferedImage src, int width, int height) {
+		numChannels = src.getRaster().getNumBands();
+		int srcColorType = ImageUtilities.getColorSpaceType(src.getColorModel().getColorSpace());
+		hasAlpha = src.getColorModel().hasAlpha();
+		srcIsSRGB = srcColorType != ColorSpace.CS_LINEAR_RGB;
+		srcIsPreAlpha = src.getColorModel().isAlphaPremultiplied();
+		// IMPROVE: extra check to see if entire palette (except transparent index) is gray
+
+		BufferedImage img = ImageUtilities.createByteImage(width, height, numChannels,
+		                                                   srcColorType, hasAlpha, srcIsPreAlpha);
+
+		if (Logger.getGlobal().isLoggable(Level.FINEST))
+			Logger.getGlobal().finest("output img: " + ImageUtilities.analyzeImage(img));
+
+		return img;
+	}
+
+	protected void preCalculateSubSampling(ResamplingOrder resampleOrder) {
+		switch (resampleOrder) {
+			case X_ONLY:
+				horizontalSamplingData = getSubSampling(
+						filter, srcWidth, dstWidth, widthScaleFactor, offsetX, numChannels);
+				break;
+			case Y_ONLY:
+				verticalSamplingData = getSubSampling(
+						filter, srcHeight, dstHeight, heightScaleFactor, offsetY, numChannels * srcWidth);
+				break;
+			case X_FIRST:
+				// Pre-calculate sub-sampling
+				horizontalSamplingData = getSubSampling(
+						filter, srcWidth, dstWidth, widthScaleFactor, offsetX, numChannels);
+				verticalSamplingData = getSubSampling(
+						filter, srcHeight, dstHeight, heightScaleFactor, offsetY, numChannels * dstWidth);
+				break;
+			case Y_FIRST:
+				// Pre-calculate sub-sampling
+				verticalSamplingData = getSubSampling(
+						filter, srcHeight, dstHeight, heightScaleFactor, offsetY, numChannels * srcWidth);
+				horizontalSamplingData = getSubSampling(
+						filter, srcWidth, dstWidth, widthScaleFactor, offsetX, numChannels);
+				break;
+			default:
+				throw new AssertionError(resampleOrder);
+		}
+	}
+
+	/**
+	 * Returns the sub-sampling from the {@link #getSamplingDataCache() cache}, or calculates it when there's no
+	 * cache.
+	 *
+	 * @see SamplingDataCalculator#createSubSampling(ResamplingCurve, int, int, double, double, int)
+	 */
+	protected SamplingData getSubSampling(ResamplingCurve filter, int srcSize, int dstSize,
+	                                      double scale, double offset, int pixelStride) {
+		SamplingDataCache samplingDataCache = this.samplingDataCache;
+		if (samplingDataCache == null)
+			return SamplingDataCalculator.createSubSampling(filter, srcSize, dstSize, scale, offset, pixelStride);
+
+		return samplingDataCache.get(filter, srcSize, dstSize, scale, offset, pixelStride);
+	}
+
+	/**
+	 * Builds the dependency graph between consecutive layers of workers. Each layer contains one worker per strip.
+	 * A worker depends on the worker of the same strip in the previous layer, and if it's a
+	 * {@link StripOverlappingWorker}, also on the workers of as many bordering strips as the resampling curve
+	 * reaches into.
+	 */
+	protected DependentWorkerQueue<Void> makeResampleQueue(List<List<Callable<Void>>> workers) {
+		DependentWorkerQueue<Void> workerQueue = new DependentWorkerQueue<>();
+		addResampleWorkers(workerQueue, workers);
+		return workerQueue;
+	}
+
+	/**
+	 * Like {@link #makeResampleQueue(List)}, but adds the workers to an existing queue, for example to run the
+	 * workers of several resizes together. The dependencies are determined by the geometry of this resampler.
+	 */
+	protected void addResampleWorkers(DependentWorkerQueue<Void> workerQueue, List<List<Callable<Void>>> workers) {
+		int numStrips = getNumStrips();
+
+		for (int i = 0; i < workers.size(); i++) {
+			List<Callable<Void>> currentLayer = workers.get(i);
+			if (i == 0) {
+				// Workers in the first layer don't have any dependencies
+				currentLayer.forEach(workerQueue::addWorker);
+			} else {
+				// This layer has dependencies on workers in the previous layer
+				List<Callable<Void>> previousLayer = workers.get(i - 1);
+
+				for (int j = 0; j < numStrips; j++) {
+					Callable<Void> worker = currentLayer.get(j);
+
+					// Only vertical resample workers need data of bordering strips
+					int width = 0;
+
+					if (worker instanceof StripOverlappingWorker) {
+						double scaleFactor = heightScaleFactor < 1 ? 1 / heightScaleFactor : heightScaleFactor;
+						double stripHeight = srcHeight * heightScaleFactor / numStrips;
+						double overlap     = scaleFactor / stripHeight * filter.getRadius();
+						width = (int)Math.ceil(overlap);
+					}
+					// FIXME: just 0 or 1 is not adequate. It fails when strips are narrower than the resampling curve
+					// radius.
+
+					// Create a list of dependencies for this worker
+					Collection<Callable<Void>> dependencies = new ArrayList<>(3);
+					for (int k = j - width; k <= j + width; k++)
+						if (k >= 0 && k < previousLayer.size())
+							dependencies.add(previousLayer.get(k));
+
+					workerQueue.addWorker(worker, dependencies);
+				}
+			}
+		}
+	}
+
 	protected void runWorkers(DependentWorkerQueue<Void> workers) throws InterruptedException {
-		int maxWorkers = getNumThreads() == 0 ? AVAILABLE_PROCESSORS : getNumThreads();
+		int maxWorkers = getNumStrips();
+
+		if (closed)
+			throw new IllegalStateException("Resampler is closed");
+
+		// Only this run's workers complete to this service, also when the executor is shared
+		CompletionService<Void> service = new ExecutorCompletionService<>(getExecutor());
 
 		// Keep track of which workers there are in the service
 		Set<Future<Void>> runningWorkers = new HashSet<>(maxWorkers);
@@ -49,6 +49,8 @@ import org.digitalmodular.imageutilities.SizeInt;
  * @author Mark Jeronimus
  */
 // Created 2015-08-15
+// Changed 2026-10-16 Allow calculating the output size without an image
+// Changed 2026-10-16 Copy constructor, for the working data of concurrent resizes
 @SuppressWarnings({"OverloadedVarargsMethod", "ProtectedField"})
 public abstract class AbstractImageResizer<I> implements ImageResizer {
 	// User data
@@ -60,7 +62,7 @@ public abstract class AbstractImageResizer<I> implements ImageResizer {
 	protected boolean  dontPreAlpha = false;
 	protected EdgeMode edgeMode     = EdgeMode.CLAMP;
 
-	protected final List<ProgressListener> listeners = new CopyOnWriteArrayList<>();
+	protected final List<ProgressListener> listeners;
 
 	// Working data
 	protected int     srcWidth          = 0;
@@ -76,6 +78,23 @@ public abstract class AbstractImageResizer<I> implements ImageResizer {
 	protected boolean srcIsSRGB         = false;
 	protected boolean srcIsPreAlpha     = false;
 
+	protected AbstractImageResizer() {
+		listeners = new CopyOnWriteArrayList<>();
+	}
+
+	/**
+	 * Creates a resizer with the same settings and listeners as another one, but without its working data.
+	 */
+	protected AbstractImageResizer(AbstractImageResizer<I> settings) {
+		outputSize = settings.outputSize;
+		outputScaleFactor = settings.outputScaleFactor;
+		outputOffset = settings.outputOffset;
+		ignoreSRGB = settings.ignoreSRGB;
+		dontPreAlpha = settings.dontPreAlpha;
+		edgeMode = settings.edgeMode;
+		listeners = settings.listeners;
+	}
+
 	@Override
 	public SizeInt getOutputSize() {
 		return outputSize;
@@ -168,13 +187,17 @@ public abstract class AbstractImageResizer<I> implements ImageResizer {
 	}
 
 	protected void calculateDstSizeAndScale(RenderedImage image) {
+		calculateDstSizeAndScale(image.getWidth(), image.getHeight());
+	}
+
+	protected void calculateDstSizeAndScale(int srcWidth, int srcHeight) {
 		if (outputSize == null && outputScaleFactor == null) {
 			throw new IllegalStateException(
 					"Either or both of outputSize and outputScaleFactor need to be set first.");
 		}
 
-		srcWidth = image.getWidth();
-		srcHeight = image.getHeight();
+		this.srcWidth = srcWidth;
+		this.srcHeight = srcHeight;
 
 		if (outputSize != null) {
 			dstWidth = outputSize.getWidth();
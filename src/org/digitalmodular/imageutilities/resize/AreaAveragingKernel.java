@@ -0,0 +1,303 @@
+/*
+ * This file is part of ImageUtilities.
+ *
+ * Copyleft 2016 Mark Jeronimus. All Rights Reversed.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ImageUtilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.digitalmodular.imageutilities.resize;
+
+import org.digitalmodular.imageutilities.resize.filter.BoxResamplingCurve;
+
+/**
+ * Area-averaging for shrinking with the {@link BoxResamplingCurve}. Each output sample is the average of the input
+ * samples under it, where the input samples at both ends are weighted by the fraction they're covered.
+ * <p>
+ * The generic resampling loops multiply every input sample by a weight, and the number of weights per output sample
+ * grows with the reduction factor. Here, the input samples fully under an output sample are just summed. Because the
+ * output samples tile the input without overlap, each input sample is added only once, and only the two partially
+ * covered input samples are multiplied by a weight. The cost per input sample is therefore independent of the scale
+ * factor. The generic loops are vectorized, however, so this only pays off for large reductions, and more so
+ * horizontally (where the generic loops handle one output pixel at a time) than vertically.
+ * <p>
+ * The weights are pre-multiplied by the normalization factor and kept in {@link #PRECISION}-bit fixed point. The
+ * sums stay exact: a sum is an {@code int} of at most {@link #MAX_SUMMED} samples.
+ * <p>
+ * Coverage beyond the edge of the image is added to the edge sample, like {@link ImageResizer.EdgeMode#CLAMP}. The
+ * results are the same as resampling with the {@link SamplingDataCalculator#isAreaAveraging area-averaging weights}
+ * of {@link SamplingDataCalculator}, apart from rounding.
+ * <p>
+ * The geometry is calculated once per resize. This class is immutable, so it can be shared by all workers.
+ *
+ * @author Mark Jeronimus
+ */
+// Created 2026-10-16
+final class AreaAveragingKernel {
+	/** The largest horizontal scale factor for which this is faster than the generic resampling loops */
+	static final double MAX_HORIZONTAL_SCALE = 1 / 16.0;
+	/** The largest vertical scale factor for which this is faster than the generic resampling loops */
+	static final double MAX_VERTICAL_SCALE   = 1 / 128.0;
+	/** The largest number of 15-bit samples that can be summed in an {@code int} */
+	static final int    MAX_SUMMED           = 65536;
+	static final int    PRECISION            = 30;
+
+	/** The first input sample of each output sample (partially covered) */
+	private final int[] firsts;
+	/** The last input sample of each output sample (partially covered), or the same as the first */
+	private final int[] lasts;
+	private final int[] firstWeights;
+	private final int[] lastWeights;
+	/** The weight of the fully covered input samples, which is the scale factor */
+	private final long  weight;
+
+	/**
+	 * Returns whether shrinking horizontally by the given factor is done with this class instead of the generic
+	 * resampling loops.
+	 */
+	static boolean isHorizontallyApplicable(double scale) {
+		return scale <= MAX_HORIZONTAL_SCALE && scale * MAX_SUMMED > 1;
+	}
+
+	/**
+	 * Returns whether shrinking vertically by the given factor is done with this class instead of the generic
+	 * resampling loops.
+	 */
+	static boolean isVerticallyApplicable(double scale) {
+		return scale <= MAX_VERTICAL_SCALE && scale * MAX_SUMMED > 1;
+	}
+
+	/**
+	 * @param scale  the scaling factor, {@code < 1}
+	 * @param offset like in {@link SamplingDataCalculator#createSubSampling}
+	 */
+	AreaAveragingKernel(int srcSize, int dstSize, double scale, double offset) {
+		firsts = new int[dstSize];
+		lasts = new int[dstSize];
+		firstWeights = new int[dstSize];
+		lastWeights = new int[dstSize];
+		weight = Math.round(scale * (1 << PRECISION));
+
+		// Same as SamplingDataCalculator, but with input sample i covering [i, i+1) instead of being centered on i
+		double centerOffset = ((srcSize - 1) - (dstSize - 1 + offset * 2) / scale) / 2 + 0.5;
+		double radius       = 0.5 / scale;
+
+		for (int i = 0; i < dstSize; i++) {
+			double center = i / scale + centerOffset;
+			double left   = center - radius;
+			double right  = center + radius;
+
+			// The covered part inside the image
+			double begin = Math.min(Math.max(left, 0), srcSize);
+			double end   = Math.min(Math.max(right, 0), srcSize);
+
+			int first = Math.min((int)Math.floor(begin), srcSize - 1);
+			int last  = Math.max(Math.min((int)Math.ceil(end) - 1, srcSize - 1), first);
+
+			double firstWeight;
+			double lastWeight;
+			if (first == last) {
+				firstWeight = end - begin;
+				lastWeight = 0;
+			} else {
+				firstWeight = first + 1 - begin;
+				lastWeight = end - last;
+			}
+
+			// The covered part beyond the edges goes to the edge samples
+			if (left < 0)
+				firstWeight += Math.min(right, 0) - left;
+			if (right > srcSize) {
+				if (first == last)
+					firstWeight += right - Math.max(left, srcSize);
+				else
+					lastWeight += right - Math.max(left, srcSize);
+			}
+
+			firsts[i] = first;
+			lasts[i] = last;
+			firstWeights[i] = (int)Math.round(firstWeight * scale * (1 << PRECISION));
+			lastWeights[i] = (int)Math.round(lastWeight * scale * (1 << PRECISION));
+		}
+	}
+
+	/**
+	 * Resamples one row in the horizontal direction.
+	 *
+	 * @param inOffset  the index of the first sample of the input row
+	 * @param outOffset the index of the first sample of the output row
+	 * @param round     whether to round the results, like the fixed-point loops, instead of truncating them
+	 */
+	void resampleHorizontally(short[] in, int inOffset, short[] out, int outOffset, int numChannels, boolean round) {
+		long rounding = round ? 1L << (PRECISION - 1) : 0;
+
+		switch (numChannels) {
+			case 1:
+				horizontalResample1Channel(in, inOffset, out, outOffset, rounding);
+				break;
+			case 2:
+				horizontalResample2Channels(in, inOffset, out, outOffset, rounding);
+				break;
+			case 3:
+				horizontalResample3Channels(in, inOffset, out, outOffset, rounding);
+				break;
+			case 4:
+				horizontalResample4Channels(in, inOffset, out, outOffset, rounding);
+				break;
+			default:
+				throw new AssertionError("numChannels: " + numChannels);
+		}
+	}
+
+	private void horizontalResample1Channel(short[] in, int offset, short[] out, int u, long rounding) {
+		for (int x = 0; x < firsts.length; x++) {
+			int  p           = offset + firsts[x];
+			int  end         = offset + lasts[x];
+			long firstWeight = firstWeights[x];
+			long lastWeight  = lastWeights[x];
+
+			int sum0 = 0;
+			for (int i = p + 1; i < end; i++)
+				sum0 += in[i];
+
+			out[u++] = (short)(sum0 * weight + in[p] * firstWeight + in[end] * lastWeight + rounding >> PRECISION);
+		}
+	}
+
+	private void horizontalResample2Channels(short[] in, int offset, short[] out, int u, long rounding) {
+		for (int x = 0; x < firsts.length; x++) {
+			int  p           = offset + firsts[x] * 2;
+			int  end         = offset + lasts[x] * 2;
+			long firstWeight = firstWeights[x];
+			long lastWeight  = lastWeights[x];
+
+			int sum0 = 0;
+			int sum1 = 0;
+			for (int i = p + 2; i < end; i += 2) {
+				sum0 += in[i];
+				sum1 += in[i + 1];
+			}
+
+			out[u++] = (short)(sum0 * weight + in[p] * firstWeight + in[end] * lastWeight + rounding >> PRECISION);
+			out[u++] = (short)(sum1 * weight + in[p + 1] * firstWeight + in[end + 1] * lastWeight + rounding >>
+			                   PRECISION);
+		}
+	}
+
+	private void horizontalResample3Channels(short[] in, int offset, short[] out, int u, long rounding) {
+		for (int x = 0; x < firsts.length; x++) {
+			int  p           = offset + firsts[x] * 3;
+			int  end         = offset + lasts[x] * 3;
+			long firstWeight = firstWeights[x];
+			long lastWeight  = lastWeights[x];
+
+			int sum0 = 0;
+			int sum1 = 0;
+			int sum2 = 0;
+			for (int i = p + 3; i < end; i += 3) {
+				sum0 += in[i];
+				sum1 += in[i + 1];
+				sum2 += in[i + 2];
+			}
+
+			out[u++] = (short)(sum0 * weight + in[p] * firstWeight + in[end] * lastWeight + rounding >> PRECISION);
+			out[u++] = (short)(sum1 * weight + in[p + 1] * firstWeight + in[end + 1] * lastWeight + rounding >>
+			                   PRECISION);
+			out[u++] = (short)(sum2 * weight + in[p + 2] * firstWeight + in[end + 2] * lastWeight + rounding >>
+			                   PRECISION);
+		}
+	}
+
+	private void horizontalResample4Channels(short[] in, int offset, short[] out, int u, long rounding) {
+		for (int x = 0; x < firsts.length; x++) {
+			int  p           = offset + firsts[x] * 4;
+			int  end         = offset + lasts[x] * 4;
+			long firstWeight = firstWeights[x];
+			long lastWeight  = lastWeights[x];
+
+			int sum0 = 0;
+			int sum1 = 0;
+			int sum2 = 0;
+			int sum3 = 0;
+			for (int i = p + 4; i < end; i += 4) {
+				sum0 += in[i];
+				sum1 += in[i + 1];
+				sum2 += in[i + 2];
+				sum3 += in[i + 3];
+			}
+
+			out[u++] = (short)(sum0 * weight + in[p] * firstWeight + in[end] * lastWeight + rounding >> PRECISION);
+			out[u++] = (short)(sum1 * weight + in[p + 1] * firstWeight + in[end + 1] * lastWeight + rounding >>
+			                   PRECISION);
+			out[u++] = (short)(sum2 * weight + in[p + 2] * firstWeight + in[end + 2] * lastWeight + rounding >>
+			                   PRECISION);
+			out[u++] = (short)(sum3 * weight + in[p + 3] * firstWeight + in[end + 3] * lastWeight + rounding >>
+			                   PRECISION);
+		}
+	}
+
+	/**
+	 * Resamples one row in the vertical direction. Channels don't need to be distinguished: a row is resampled as
+	 * one long run of samples.
+	 *
+	 * @param rowLength the number of samples per row, in both the input and the output
+	 * @param y         the output row
+	 * @param sums      scratch space of at least {@code rowLength} elements
+	 * @param round     whether to round the results, like the fixed-point loops, instead of truncating them
+	 */
+	void resampleVertically(short[] in, short[] out, int outOffset, int rowLength, int y, int[] sums,
+	                        boolean round) {
+		long rounding    = round ? 1L << (PRECISION - 1) : 0;
+		int  first       = firsts[y] * rowLength;
+		int  last        = lasts[y] * rowLength;
+		long firstWeight = firstWeights[y];
+		long lastWeight  = lastWeights[y];
+
+		// Sum the fully covered rows, starting with a copy of the first one. Adding four rows at a time saves
+		// round-trips through the sums.
+		int p = first + rowLength;
+		if (p < last) {
+			for (int x = 0; x < rowLength; x++)
+				sums[x] = in[p + x];
+			p += rowLength;
+			for (; p + rowLength * 3 < last; p += rowLength * 4) {
+				int p1 = p + rowLength;
+				int p2 = p1 + rowLength;
+				int p3 = p2 + rowLength;
+				for (int x = 0; x < rowLength; x++)
+					sums[x] += in[p + x] + in[p1 + x] + in[p2 + x] + in[p3 + x];
+			}
+			for (; p < last; p += rowLength)
+				for (int x = 0; x < rowLength; x++)
+					sums[x] += in[p + x];
+
+			for (int x = 0; x < rowLength; x++) {
+				long sample = sums[x] * weight + in[first + x] * firstWeight + in[last + x] * lastWeight + rounding;
+				out[outOffset + x] = (short)(sample >> PRECISION);
+			}
+		} else {
+			for (int x = 0; x < rowLength; x++) {
+				long sample = in[first + x] * firstWeight + in[last + x] * lastWeight + rounding;
+				out[outOffset + x] = (short)(sample >> PRECISION);
+			}
+		}
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * This file is part of ImageUtilities.
+ *
+ * Copyleft 2016 Mark Jeronimus. All Rights Reversed.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ImageUtilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.digitalmodular.imageutilities.resize;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import javax.imageio.ImageTypeSpecifier;
+
+/**
+ * Receives the output image of {@link ImageResamplerShort#resize(javax.imageio.ImageReader, int, int, ImageBandSink)}
+ * in horizontal bands, from top to bottom.
+ *
+ * @author Mark Jeronimus
+ */
+// Created 2026-10-16
+@FunctionalInterface
+public interface ImageBandSink {
+	/**
+	 * Called once, before the first band.
+	 *
+	 * @param width  the width of the complete output image
+	 * @param height the height of the complete output image
+	 * @param type   the type of all bands
+	 */
+	default void begin(int width, int height, ImageTypeSpecifier type) throws IOException { }
+
+	/**
+	 * Called for each band. The band image is not reused, and may be retained.
+	 *
+	 * @param band the band, which is as wide as the complete output image
+	 * @param y    the row of the complete output image where this band starts
+	 */
+	void writeBand(BufferedImage band, int y) throws IOException;
+
+	/**
+	 * Called once, after the last band.
+	 */
+	default void end() throws IOException { }
+}
@@ -33,7 +33,8 @@ import org.digitalmodular.imageutilities.resize.filter.ResamplingCurve;
  * @author Mark Jeronimus
  */
 // Created 2016-05-09
-public interface ImageResampler extends ImageResizer {
+// Changed 2026-10-16 Closeable
+public interface ImageResampler extends ImageResizer, AutoCloseable {
 	int getNumThreads();
 
 	/**
@@ -48,4 +49,10 @@ public interface ImageResampler extends ImageResizer {
 	 * Set the interpolation filter to use. Default is {@link Lanczos3ResamplingCurve#INSTANCE}.
 	 */
 	void setFilter(ResamplingCurve filter);
+
+	/**
+	 * Releases this resampler. It can't resize anymore afterwards.
+	 */
+	@Override
+	void close();
 }
@@ -0,0 +1,580 @@
+/*
+ * This file is part of ImageUtilities.
+ *
+ * Copyleft 2016 Mark Jeronimus. All Rights Reversed.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ImageUtilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.digitalmodular.imageutilities.resize;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.digitalmodular.imageutilities.ImageUtilities;
+import org.digitalmodular.imageutilities.ProgressEvent;
+import org.digitalmodular.imageutilities.internal.DependentWorkerQueue;
+import org.digitalmodular.imageutilities.internal.PerformanceTimer;
+import static org.digitalmodular.imageutilities.resize.SamplingDataCalculator.WEIGHT_PRECISION;
+
+/**
+ * Fast variant of {@link ImageResamplerShort} that trades accuracy for memory bandwidth.
+ * <p>
+ * Features:<ul>
+ * <li>Compatible images: {@link BufferedImage} with G, AG, BGR, or ABGR interleaved byte data,</li>
+ * <li>Internal format: 8 bits per component,</li>
+ * <li>Intermediate clamping: yes, after each resampling step,</li>
+ * <li>Linearity: none, sRGB correction is never applied (as if {@link #setIgnoreSRGB(boolean) ignoreSRGB} is
+ * set),</li>
+ * <li>Alpha: pre-multiplies when necessary,</li>
+ * <li>Arithmetic: integer, with weights in fixed-point with {@value SamplingDataCalculator#WEIGHT_PRECISION}
+ * fractional bits,</li>
+ * <li>Parallel processing: the same strip scheduling as {@link ImageResamplerShort}.</li>
+ * </ul>
+ * <p>
+ * All data buffers are in {@code byte} format, which halves the working-set memory compared to
+ * {@link ImageResamplerShort}. When no alpha pre-multiplication is needed, the pixels of the input image are
+ * resampled directly, and the last resampling step writes directly into the output image.
+ *
+ * @author Mark Jeronimus
+ */
+// Created 2026-10-16
+public class ImageResamplerByte extends AbstractImageResampler {
+	private static final int ROUNDING = 1 << (WEIGHT_PRECISION - 1);
+
+	private final PerformanceTimer timer = new PerformanceTimer();
+
+	/**
+	 * @return a resized {@link BufferedImage} or the unmodified input image
+	 */
+	@Override
+	public synchronized BufferedImage resize(BufferedImage image) throws InterruptedException {
+		timer.reset();
+		timer.start();
+		fireProgressUpdated(new ProgressEvent(0, -1));
+
+		calculateDstSizeAndScale(image);
+
+		// Determine the most efficient order of operations
+		ResamplingOrder order = determineResampleOrder();
+
+		if (order == ResamplingOrder.NONE)
+			return image;
+
+		if (Logger.getGlobal().isLoggable(Level.FINEST))
+			Logger.getGlobal().finest("input img: " + ImageUtilities.analyzeImage(image));
+
+		if (Thread.currentThread().isInterrupted())
+			throw new InterruptedException();
+
+		BufferedImage src = makeImageCompatible(image);
+
+		timer.record("Convert");
+
+		// Create output image with same properties as the input image after pre-conversion
+		BufferedImage out = createCompatibleOutputImage(src);
+
+		boolean premultiply = hasAlpha && !srcIsPreAlpha && !dontPreAlpha;
+
+		// Prepare the work buffers. Without pre-multiplication, the image data itself can be used.
+		byte[] srcPixels  = ((DataBufferByte)src.getRaster().getDataBuffer()).getData();
+		byte[] srcBuffer  = premultiply ? new byte[srcPixels.length] : srcPixels;
+		byte[] workBuffer = makeWorkBuffer(order);
+		byte[] dstPixels  = ((DataBufferByte)out.getRaster().getDataBuffer()).getData();
+		byte[] dstBuffer  = premultiply ? new byte[dstPixels.length] : dstPixels;
+
+		if (Thread.currentThread().isInterrupted())
+			throw new InterruptedException();
+
+		timer.record("Allocate");
+
+		// Pre-calculate the sub-sampling(s)
+		preCalculateSubSampling(order);
+
+		// Build the queue of parallelizable workers
+		List<List<Callable<Void>>> workers =
+				makeWorkerLists(order, premultiply, srcPixels, srcBuffer, workBuffer, dstBuffer, dstPixels);
+		DependentWorkerQueue<Void> workerQueue = makeResampleQueue(workers);
+
+		fireProgressUpdated(new ProgressEvent(0, workerQueue.size()));
+
+		runWorkers(workerQueue);
+
+		if (Thread.currentThread().isInterrupted())
+			throw new InterruptedException();
+
+		timer.record("Resize");
+		timer.printResults(dstWidth * dstHeight);
+		timer.printTotal();
+		fireProgressCompleted(new ProgressEvent(dstWidth * dstHeight, dstWidth * dstHeight));
+
+		// GC this:
+		horizontalSamplingData = null;
+		verticalSamplingData = null;
+
+		return out;
+	}
+
+	private byte[] makeWorkBuffer(ResamplingOrder resamplingOrder) {
+		switch (resamplingOrder) {
+			case X_ONLY:
+			case Y_ONLY:
+				// Only step: no need for a work buffer
+				return null;
+			case X_FIRST:
+				// First step: use only width from dst
+				return new byte[dstWidth * srcHeight * numChannels];
+			case Y_FIRST:
+				// First step: use only height from dst
+				return new byte[srcWidth * dstHeight * numChannels];
+			default:
+				throw new AssertionError(resamplingOrder);
+		}
+	}
+
+	private List<List<Callable<Void>>> makeWorkerLists(ResamplingOrder resamplingOrder, boolean premultiply,
+	                                                   byte[] srcPixels, byte[] srcBuffer,
+	                                                   byte[] workBuffer,
+	                                                   byte[] dstBuffer, byte[] dstPixels) {
+		int numStrips = getNumStrips();
+
+		// Make 4 lists of workers for each of the steps in the process.
+		List<Callable<Void>> preConvertWorkers  = new ArrayList<>(numStrips);
+		List<Callable<Void>> step1Workers       = new ArrayList<>(numStrips);
+		List<Callable<Void>> step2Workers       = new ArrayList<>(numStrips);
+		List<Callable<Void>> postConvertWorkers = new ArrayList<>(numStrips);
+
+		// Divide the rows of the image in approximately equal pieces
+		for (int i = 0; i < numStrips; i++) {
+			int srcBegin = i * srcHeight / numStrips;
+			int srcEnd   = (i + 1) * srcHeight / numStrips;
+			int dstBegin = i * dstHeight / numStrips;
+			int dstEnd   = (i + 1) * dstHeight / numStrips;
+
+			// First step: pre-convert (only when pre-multiplying)
+			if (premultiply)
+				preConvertWorkers.add(new PreConvertWorker(srcPixels, srcBuffer, srcBegin, srcEnd));
+
+			// Intermediate steps: X and/or Y resampling
+			switch (resamplingOrder) {
+				case X_ONLY:
+					step1Workers.add(new HorizontalResampleWorker(srcBuffer, dstBuffer, dstBegin, dstEnd));
+					break;
+				case Y_ONLY:
+					step1Workers.add(new VerticalResampleWorker(srcBuffer, dstBuffer, dstBegin, dstEnd, srcWidth));
+					break;
+				case X_FIRST:
+					step1Workers.add(new HorizontalResampleWorker(srcBuffer, workBuffer, srcBegin, srcEnd));
+					step2Workers.add(new VerticalResampleWorker(workBuffer, dstBuffer, dstBegin, dstEnd, dstWidth));
+					break;
+				case Y_FIRST:
+					step1Workers.add(new VerticalResampleWorker(srcBuffer, workBuffer, dstBegin, dstEnd, srcWidth));
+					step2Workers.add(new HorizontalResampleWorker(workBuffer, dstBuffer, dstBegin, dstEnd));
+					break;
+				default:
+					throw new AssertionError(resamplingOrder);
+			}
+
+			// Last step: post-convert (only when pre-multiplying)
+			if (premultiply)
+				postConvertWorkers.add(new PostConvertWorker(dstBuffer, dstPixels, dstBegin, dstEnd));
+		}
+
+		List<List<Callable<Void>>> layers = new ArrayList<>(4);
+		layers.add(preConvertWorkers);
+		layers.add(step1Workers);
+		layers.add(step2Workers);
+		layers.add(postConvertWorkers);
+		layers.removeIf(List::isEmpty);
+		return layers;
+	}
+
+	private static byte clamp(int value) {
+		return value <= 0 ? 0 : value >= 255 ? -1 : (byte)value;
+	}
+
+	private final class PreConvertWorker implements Callable<Void> {
+		private final byte[] inPixels;
+		private final byte[] outPixels;
+		private final int    begin;
+		private final int    end;
+
+		private PreConvertWorker(byte[] inPixels, byte[] outPixels, int begin, int end) {
+			this.inPixels = inPixels;
+			this.outPixels = outPixels;
+			this.begin = begin * srcWidth * numChannels;
+			this.end = end * srcWidth * numChannels;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			switch (numChannels) {
+				case 2:
+					preConvertAlphaPremultiply2Channels();
+					break;
+				case 4:
+					preConvertAlphaPremultiply4Channels();
+					break;
+				default:
+					throw new AssertionError("numChannels: " + numChannels);
+			}
+			return null;
+		}
+
+		private void preConvertAlphaPremultiply2Channels() {
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
+
+			byte[] inPixels  = this.inPixels;
+			byte[] outPixels = this.outPixels;
+			int    p         = begin;
+			int    end       = this.end;
+			while (p < end) {
+				int alpha = inPixels[p] & 0xFF;
+
+				// Premultiply by alpha channel
+				outPixels[p] = (byte)alpha;
+				outPixels[p + 1] = (byte)(((inPixels[p + 1] & 0xFF) * alpha + 127) / 255);
+				p += 2;
+			}
+		}
+
+		private void preConvertAlphaPremultiply4Channels() {
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
+
+			byte[] inPixels  = this.inPixels;
+			byte[] outPixels = this.outPixels;
+			int    p         = begin;
+			int    end       = this.end;
+			while (p < end) {
+				int alpha = inPixels[p] & 0xFF;
+
+				// Premultiply by alpha channel
+				outPixels[p] = (byte)alpha;
+				outPixels[p + 1] = (byte)(((inPixels[p + 1] & 0xFF) * alpha + 127) / 255);
+				outPixels[p + 2] = (byte)(((inPixels[p + 2] & 0xFF) * alpha + 127) / 255);
+				outPixels[p + 3] = (byte)(((inPixels[p + 3] & 0xFF) * alpha + 127) / 255);
+				p += 4;
+			}
+		}
+	}
+
+	private final class HorizontalResampleWorker implements Callable<Void> {
+		private final byte[] inPixels;
+		private final byte[] outPixels;
+		private final int    begin;
+		private final int    end;
+
+		private HorizontalResampleWorker(byte[] inPixels, byte[] outPixels, int begin, int end) {
+			this.inPixels = inPixels;
+			this.outPixels = outPixels;
+			this.begin = begin;
+			this.end = end;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			int   numSamples     = horizontalSamplingData.getNumSamples();
+			int[] startsX        = horizontalSamplingData.getStarts();
+			int[] weightOffsetsX = horizontalSamplingData.getWeightOffsets();
+			int[] weightsX       = horizontalSamplingData.getFixedWeights();
+
+			switch (numChannels) {
+				case 1:
+					horizontalResample1Channel(numSamples, startsX, weightOffsetsX, weightsX);
+					break;
+				case 2:
+					horizontalResample2Channels(numSamples, startsX, weightOffsetsX, weightsX);
+					break;
+				case 3:
+					horizontalResample3Channels(numSamples, startsX, weightOffsetsX, weightsX);
+					break;
+				case 4:
+					horizontalResample4Channels(numSamples, startsX, weightOffsetsX, weightsX);
+					break;
+				default:
+					throw new AssertionError("numChannels: " + numChannels);
+			}
+			return null;
+		}
+
+		private void horizontalResample1Channel(int numSamples, int[] startsX, int[] weightOffsetsX, int[] weightsX) {
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
+
+			byte[] inPixels  = this.inPixels;
+			byte[] outPixels = this.outPixels;
+			int    end       = this.end;
+			int    srcWidth  = ImageResamplerByte.this.srcWidth;
+			int    dstWidth  = ImageResamplerByte.this.dstWidth;
+			for (int y = begin; y < end; y++) {
+				int offset = srcWidth * y;
+				for (int x = 0; x < dstWidth; x++) {
+					int sample0  = ROUNDING;
+					int arrPixel = offset + startsX[x];
+					int index    = weightOffsetsX[x];
+					for (int i = numSamples; i > 0; i--) {
+						sample0 += (inPixels[arrPixel] & 0xFF) * weightsX[index];
+						arrPixel++;
+						index++;
+					}
+					outPixels[x + y * dstWidth] = clamp(sample0 >> WEIGHT_PRECISION);
+				}
+			}
+		}
+
+		private void horizontalResample2Channels(int numSamples, int[] startsX, int[] weightOffsetsX, int[] weightsX) {
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
+
+			byte[] inPixels  = this.inPixels;
+			byte[] outPixels = this.outPixels;
+			int    end       = this.end;
+			int    srcWidth  = ImageResamplerByte.this.srcWidth;
+			int    dstWidth  = ImageResamplerByte.this.dstWidth;
+			for (int y = begin; y < end; y++) {
+				int offset = srcWidth * y * 2;
+				for (int x = 0; x < dstWidth; x++) {
+					int sample0  = ROUNDING;
+					int sample1  = ROUNDING;
+					int arrPixel = offset + startsX[x];
+					int index    = weightOffsetsX[x];
+					for (int i = numSamples; i > 0; i--) {
+						int weight = weightsX[index];
+						index++;
+
+						sample0 += (inPixels[arrPixel] & 0xFF) * weight;
+						sample1 += (inPixels[arrPixel + 1] & 0xFF) * weight;
+						arrPixel += 2;
+					}
+					int u = (x + y * dstWidth) * 2;
+					outPixels[u] = clamp(sample0 >> WEIGHT_PRECISION);
+					outPixels[u + 1] = clamp(sample1 >> WEIGHT_PRECISION);
+				}
+			}
+		}
+
+		private void horizontalResample3Channels(int numSamples, int[] startsX, int[] weightOffsetsX, int[] weightsX) {
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
+
+			byte[] inPixels  = this.inPixels;
+			byte[] outPixels = this.outPixels;
+			int    end       = this.end;
+			int    srcWidth  = ImageResamplerByte.this.srcWidth;
+			int    dstWidth  = ImageResamplerByte.this.dstWidth;
+			for (int y = begin; y < end; y++) {
+				int offset = srcWidth * y * 3;
+				for (int x = 0; x < dstWidth; x++) {
+					int sample0  = ROUNDING;
+					int sample1  = ROUNDING;
+					int sample2  = ROUNDING;
+					int arrPixel = offset + startsX[x];
+					int index    = weightOffsetsX[x];
+					for (int i = numSamples; i > 0; i--) {
+						int weight = weightsX[index];
+						index++;
+
+						sample0 += (inPixels[arrPixel] & 0xFF) * weight;
+						sample1 += (inPixels[arrPixel + 1] & 0xFF) * weight;
+						sample2 += (inPixels[arrPixel + 2] & 0xFF) * weight;
+						arrPixel += 3;
+					}
+					int u = (x + y * dstWidth) * 3;
+					outPixels[u] = clamp(sample0 >> WEIGHT_PRECISION);
+					outPixels[u + 1] = clamp(sample1 >> WEIGHT_PRECISION);
+					outPixels[u + 2] = clamp(sample2 >> WEIGHT_PRECISION);
+				}
+			}
+		}
+
+		private void horizontalResample4Channels(int numSamples, int[] startsX, int[] weightOffsetsX, int[] weightsX) {
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
+
+			byte[] inPixels  = this.inPixels;
+			byte[] outPixels = this.outPixels;
+			int    end       = this.end;
+			int    srcWidth  = ImageResamplerByte.this.srcWidth;
+			int    dstWidth  = ImageResamplerByte.this.dstWidth;
+			for (int y = begin; y < end; y++) {
+				int offset = srcWidth * y * 4;
+				for (int x = 0; x < dstWidth; x++) {
+					int sample0  = ROUNDING;
+					int sample1  = ROUNDING;
+					int sample2  = ROUNDING;
+					int sample3  = ROUNDING;
+					int arrPixel = offset + startsX[x];
+					int index    = weightOffsetsX[x];
+					for (int i = numSamples; i > 0; i--) {
+						int weight = weightsX[index];
+						index++;
+
+						sample0 += (inPixels[arrPixel] & 0xFF) * weight;
+						sample1 += (inPixels[arrPixel + 1] & 0xFF) * weight;
+						sample2 += (inPixels[arrPixel + 2] & 0xFF) * weight;
+						sample3 += (inPixels[arrPixel + 3] & 0xFF) * weight;
+						arrPixel += 4;
+					}
+					int u = (x + y * dstWidth) * 4;
+					outPixels[u] = clamp(sample0 >> WEIGHT_PRECISION);
+					outPixels[u + 1] = clamp(sample1 >> WEIGHT_PRECISION);
+					outPixels[u + 2] = clamp(sample2 >> WEIGHT_PRECISION);
+					outPixels[u + 3] = clamp(sample3 >> WEIGHT_PRECISION);
+				}
+			}
+		}
+	}
+
+	private final class VerticalResampleWorker implements StripOverlappingWorker {
+		private final byte[] inPixels;
+		private final byte[] outPixels;
+		private final int    begin;
+		private final int    end;
+		private final int    width;
+
+		private VerticalResampleWorker(byte[] inPixels, byte[] outPixels, int begin, int end, int width) {
+			this.inPixels = inPixels;
+			this.outPixels = outPixels;
+			this.begin = begin;
+			this.end = end;
+			this.width = width;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
+
+			int   numSamples     = verticalSamplingData.getNumSamples();
+			int   stride         = verticalSamplingData.getPixelStride();
+			int[] startsY        = verticalSamplingData.getStarts();
+			int[] weightOffsetsY = verticalSamplingData.getWeightOffsets();
+			int[] weightsY       = verticalSamplingData.getFixedWeights();
+
+			// Vertically, channels don't need to be distinguished: a row is resampled as one long run of samples.
+			byte[] inPixels  = this.inPixels;
+			byte[] outPixels = this.outPixels;
+			int    end       = this.end;
+			int    rowLength = width * numChannels;
+			for (int y = begin; y < end; y++) {
+				int u     = y * rowLength;
+				int start = startsY[y];
+				int index = weightOffsetsY[y];
+				for (int x = 0; x < rowLength; x++) {
+					int sample0  = ROUNDING;
+					int arrPixel = start + x;
+					for (int i = 0; i < numSamples; i++) {
+						sample0 += (inPixels[arrPixel] & 0xFF) * weightsY[index + i];
+						arrPixel += stride;
+					}
+					outPixels[u++] = clamp(sample0 >> WEIGHT_PRECISION);
+				}
+			}
+			return null;
+		}
+	}
+
+	private final class PostConvertWorker implements Callable<Void> {
+		private final byte[] inPixels;
+		private final byte[] outPixels;
+		private final int    begin;
+		private final int    end;
+
+		private PostConvertWorker(byte[] inPixels, byte[] outPixels, int begin, int end) {
+			this.inPixels = inPixels;
+			this.outPixels = outPixels;
+			this.begin = begin * dstWidth * numChannels;
+			this.end = end * dstWidth * numChannels;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			switch (numChannels) {
+				case 2:
+					postConvertAlphaUnPremultiply2Channels();
+					break;
+				case 4:
+					postConvertAlphaUnPremultiply4Channels();
+					break;
+				default:
+					throw new AssertionError("numChannels: " + numChannels);
+			}
+			return null;
+		}
+
+		private void postConvertAlphaUnPremultiply2Channels() {
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
+
+			byte[] inPixels  = this.inPixels;
+			byte[] outPixels = this.outPixels;
+			int    p         = begin;
+			int    end       = this.end;
+			while (p < end) {
+				int alpha = inPixels[p] & 0xFF;
+				int half  = alpha >> 1;
+
+				// Un-premultiply by alpha channel
+				outPixels[p] = (byte)alpha;
+				if (alpha == 0) {
+					outPixels[p + 1] = 0;
+				} else {
+					outPixels[p + 1] = clamp(((inPixels[p + 1] & 0xFF) * 255 + half) / alpha);
+				}
+				p += 2;
+			}
+		}
+
+		private void postConvertAlphaUnPremultiply4Channels() {
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
+
+			byte[] inPixels  = this.inPixels;
+			byte[] outPixels = this.outPixels;
+			int    p         = begin;
+			int    end       = this.end;
+			while (p < end) {
+				int alpha = inPixels[p] & 0xFF;
+				int half  = alpha >> 1;
+
+				// Un-premultiply by alpha channel
+				outPixels[p] = (byte)alpha;
+				if (alpha == 0) {
+					outPixels[p + 1] = 0;
+					outPixels[p + 2] = 0;
+					outPixels[p + 3] = 0;
+				} else {
+					outPixels[p + 1] = clamp(((inPixels[p + 1] & 0xFF) * 255 + half) / alpha);
+					outPixels[p + 2] = clamp(((inPixels[p + 2] & 0xFF) * 255 + half) / alpha);
+					outPixels[p + 3] = clamp(((inPixels[p + 3] & 0xFF) * 255 + half) / alpha);
+				}
+				p += 4;
+			}
+		}
+	}
+}
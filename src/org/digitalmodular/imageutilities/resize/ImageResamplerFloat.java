@@ -0,0 +1,763 @@
+/*
+ * This file is part of ImageUtilities.
+ *
+ * Copyleft 2016 Mark Jeronimus. All Rights Reversed.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ImageUtilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.digitalmodular.imageutilities.resize;
+
+import java.awt.Image;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ColorConvertOp;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferFloat;
+import java.awt.image.DataBufferUShort;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.digitalmodular.imageutilities.ImageUtilities;
+import org.digitalmodular.imageutilities.ProgressEvent;
+import org.digitalmodular.imageutilities.internal.DependentWorkerQueue;
+import org.digitalmodular.imageutilities.internal.PerformanceTimer;
+import static org.digitalmodular.imageutilities.resize.ImageResamplerShort.fromSRGB;
+import static org.digitalmodular.imageutilities.resize.ImageResamplerShort.toSRGB;
+
+/**
+ * High dynamic range variant of {@link ImageResamplerShort}.
+ * <p>
+ * Features:<ul>
+ * <li>Compatible images: {@link BufferedImage} with G, GA, RGB, or RGBA interleaved {@code ushort} or {@code float}
+ * data (in any band order),</li>
+ * <li>Output images: same number of bands and the same data type as the (compatible) input image,</li>
+ * <li>Internal format: {@code float}, normalized to [0, 1],</li>
+ * <li>Intermediate clamping: no, and {@code float} output isn't clamped either,</li>
+ * <li>Linearity: sRGB correction applied when necessary,</li>
+ * <li>Alpha: pre-multiplies when necessary,</li>
+ * <li>Parallel processing: the same strip scheduling as {@link ImageResamplerShort}.</li>
+ * </ul>
+ * <p>
+ * Images with other data types are converted to {@code ushort} (or {@code float} if they have {@code double} data)
+ * before resizing.
+ *
+ * @author Mark Jeronimus
+ */
+// Created 2026-10-16
+// Changed 2026-10-16 Accept all single-bank interleaved rasters, not just PixelInterleavedSampleModel
+public class ImageResamplerFloat extends AbstractImageResampler {
+	/** Converts ushort to linear [0..1] */
+	protected static final float[] USHORT_SRGB_TO_FLOAT = new float[65536];
+	/** Converts linear [0..1] to sRGB [0..1], with linear interpolation between the entries */
+	protected static final float[] FLOAT_TO_SRGB        = new float[16385];
+
+	static {
+		for (int s = 0; s < USHORT_SRGB_TO_FLOAT.length; s++)
+			USHORT_SRGB_TO_FLOAT[s] = (float)fromSRGB(s / 65535.0);
+
+		int last = FLOAT_TO_SRGB.length - 1;
+		for (int i = 0; i <= last; i++)
+			FLOAT_TO_SRGB[i] = (float)toSRGB(i / (double)last);
+	}
+
+	private final PerformanceTimer timer = new PerformanceTimer();
+
+	protected static float encodeSRGB(float f) {
+		if (f < 0)
+			return -encodeSRGB(-f);
+		else if (f >= 1)
+			return (float)toSRGB(f);
+
+		float position = f * (FLOAT_TO_SRGB.length - 1);
+		int   index    = (int)position;
+		float fraction = position - index;
+		return FLOAT_TO_SRGB[index] + (FLOAT_TO_SRGB[index + 1] - FLOAT_TO_SRGB[index]) * fraction;
+	}
+
+	@Override
+	public boolean imageIsCompatible(Image image) {
+		if (!(image instanceof BufferedImage))
+			return false;
+
+		BufferedImage  bufferedImage = (BufferedImage)image;
+		WritableRaster raster        = bufferedImage.getRaster();
+		SampleModel    sampleModel   = raster.getSampleModel();
+
+		int dataType = raster.getDataBuffer().getDataType();
+		int numBands = raster.getNumBands();
+
+		// Any interleaved layout, e.g. also the ComponentSampleModel of ColorModel.createCompatibleWritableRaster()
+		return (dataType == DataBuffer.TYPE_USHORT || dataType == DataBuffer.TYPE_FLOAT)
+		       && bufferedImage.getColorModel() instanceof ComponentColorModel
+		       && sampleModel instanceof ComponentSampleModel
+		       && raster.getDataBuffer().getNumBanks() == 1
+		       && ((ComponentSampleModel)sampleModel).getPixelStride() == numBands
+		       && numBands >= 1 && numBands <= 4;
+	}
+
+	@Override
+	public synchronized BufferedImage makeImageCompatible(Image image) {
+		if (imageIsCompatible(image))
+			return (BufferedImage)image;
+
+		if (!(image instanceof BufferedImage))
+			return makeImageCompatible(super.makeImageCompatible(image));
+
+		BufferedImage img        = (BufferedImage)image;
+		int           width      = img.getWidth();
+		int           height     = img.getHeight();
+		int           colorType  = ImageUtilities.getColorSpaceType(img.getColorModel().getColorSpace());
+		boolean       hasAlpha   = img.getColorModel().hasAlpha();
+		boolean       isAlphaPre = img.getColorModel().isAlphaPremultiplied();
+		int           dataType   = img.getRaster().getDataBuffer().getDataType();
+
+		// Can't query raster because we're possibly changing the number of channels
+		int numComponents = img.getColorModel().getColorSpace().getNumComponents();
+		int numChannels   = numComponents + (hasAlpha ? 1 : 0);
+
+		// Convert to something more manageable, without losing precision.
+		BufferedImage temp = ImageUtilities.createImage(
+				width, height, numChannels,
+				colorType,
+				hasAlpha, isAlphaPre,
+				dataType == DataBuffer.TYPE_DOUBLE ? DataBuffer.TYPE_FLOAT : DataBuffer.TYPE_USHORT);
+
+		BufferedImageOp op = new ColorConvertOp(temp.getColorModel().getColorSpace(), null);
+		img = op.filter(img, temp);
+
+		if (Logger.getGlobal().isLoggable(Level.FINEST))
+			Logger.getGlobal().finest("pre-converted img: " + ImageUtilities.analyzeImage(img));
+
+		return img;
+	}
+
+	/**
+	 * @return a resized {@link BufferedImage} or the unmodified input image
+	 */
+	@Override
+	public synchronized BufferedImage resize(BufferedImage image) throws InterruptedException {
+		timer.reset();
+		timer.start();
+		fireProgressUpdated(new ProgressEvent(0, -1));
+
+		calculateDstSizeAndScale(image);
+
+		// Determine the most efficient order of operations
+		ResamplingOrder order = determineResampleOrder();
+
+		if (order == ResamplingOrder.NONE)
+			return image;
+
+		if (Logger.getGlobal().isLoggable(Level.FINEST))
+			Logger.getGlobal().finest("input img: " + ImageUtilities.analyzeImage(image));
+
+		if (Thread.currentThread().isInterrupted())
+			throw new InterruptedException();
+
+		BufferedImage src = makeImageCompatible(image);
+
+		timer.record("Convert");
+
+		// Create output image with same properties as the input image after pre-conversion
+		BufferedImage out = createCompatibleOutputImage(src);
+
+		// Prepare the work buffers
+		float[] srcBuffer  = new float[srcWidth * srcHeight * numChannels];
+		float[] workBuffer = makeWorkBuffer(order);
+		float[] dstBuffer  = new float[dstWidth * dstHeight * numChannels];
+
+		if (Thread.currentThread().isInterrupted())
+			throw new InterruptedException();
+
+		timer.record("Allocate");
+
+		// Pre-calculate the sub-sampling(s)
+		preCalculateSubSampling(order);
+
+		// Build the queue of parallelizable workers
+		List<List<Callable<Void>>> workers =
+				makeWorkerLists(order, src.getRaster(), srcBuffer, workBuffer, dstBuffer, out.getRaster());
+		DependentWorkerQueue<Void> workerQueue = makeResampleQueue(workers);
+
+		fireProgressUpdated(new ProgressEvent(0, workerQueue.size()));
+
+		runWorkers(workerQueue);
+
+		if (Thread.currentThread().isInterrupted())
+			throw new InterruptedException();
+
+		timer.record("Resize");
+		timer.printResults(dstWidth * dstHeight);
+		timer.printTotal();
+		fireProgressCompleted(new ProgressEvent(dstWidth * dstHeight, dstWidth * dstHeight));
+
+		// GC this:
+		horizontalSamplingData = null;
+		verticalSamplingData = null;
+
+		return out;
+	}
+
+	@Override
+	protected BufferedImage createCompatibleOutputImage(BufferedImage src) {
+		numChannels = src.getRaster().getNumBands();
+		int srcColorType = ImageUtilities.getColorSpaceType(src.getColorModel().getColorSpace());
+		hasAlpha = src.getColorModel().hasAlpha();
+		srcIsSRGB = srcColorType != ColorSpace.CS_LINEAR_RGB;
+		srcIsPreAlpha = src.getColorModel().isAlphaPremultiplied();
+		int srcDataType = src.getRaster().getDataBuffer().getDataType();
+
+		BufferedImage img = ImageUtilities.createImage(dstWidth, dstHeight, numChannels,
+		                                               srcColorType, hasAlpha, srcIsPreAlpha, srcDataType);
+
+		if (Logger.getGlobal().isLoggable(Level.FINEST))
+			Logger.getGlobal().finest("output img: " + ImageUtilities.analyzeImage(img));
+
+		return img;
+	}
+
+	private float[] makeWorkBuffer(ResamplingOrder resamplingOrder) {
+		switch (resamplingOrder) {
+			case X_ONLY:
+			case Y_ONLY:
+				// Only step: no need for a work buffer
+				return null;
+			case X_FIRST:
+				// First step: use only width from dst
+				return new float[dstWidth * srcHeight * numChannels];
+			case Y_FIRST:
+				// First step: use only height from dst
+				return new float[srcWidth * dstHeight * numChannels];
+			default:
+				throw new AssertionError(resamplingOrder);
+		}
+	}
+
+	private List<List<Callable<Void>>> makeWorkerLists(ResamplingOrder resamplingOrder,
+	                                                   WritableRaster srcRaster, float[] srcBuffer,
+	                                                   float[] workBuffer,
+	                                                   float[] dstBuffer, WritableRaster dstRaster) {
+		int numStrips = getNumStrips();
+
+		// Make 4 lists of workers for each of the steps in the process.
+		List<Callable<Void>> preConvertWorkers  = new ArrayList<>(numStrips);
+		List<Callable<Void>> step1Workers       = new ArrayList<>(numStrips);
+		List<Callable<Void>> step2Workers       = new ArrayList<>(numStrips);
+		List<Callable<Void>> postConvertWorkers = new ArrayList<>(numStrips);
+
+		// Divide the rows of the image in approximately equal pieces
+		for (int i = 0; i < numStrips; i++) {
+			int srcBegin = i * srcHeight / numStrips;
+			int srcEnd   = (i + 1) * srcHeight / numStrips;
+			int dstBegin = i * dstHeight / numStrips;
+			int dstEnd   = (i + 1) * dstHeight / numStrips;
+
+			// First step: pre-convert
+			preConvertWorkers.add(new PreConvertWorker(srcRaster, srcBuffer, srcBegin, srcEnd));
+
+			// Intermediate steps: X and/or Y resampling
+			switch (resamplingOrder) {
+				case X_ONLY:
+					step1Workers.add(new HorizontalResampleWorker(srcBuffer, dstBuffer, dstBegin, dstEnd));
+					break;
+				case Y_ONLY:
+					step1Workers.add(new VerticalResampleWorker(srcBuffer, dstBuffer, dstBegin, dstEnd, srcWidth));
+					break;
+				case X_FIRST:
+					step1Workers.add(new HorizontalResampleWorker(srcBuffer, workBuffer, srcBegin, srcEnd));
+					step2Workers.add(new VerticalResampleWorker(workBuffer, dstBuffer, dstBegin, dstEnd, dstWidth));
+					break;
+				case Y_FIRST:
+					step1Workers.add(new VerticalResampleWorker(srcBuffer, workBuffer, dstBegin, dstEnd, srcWidth));
+					step2Workers.add(new HorizontalResampleWorker(workBuffer, dstBuffer, dstBegin, dstEnd));
+					break;
+				default:
+					throw new AssertionError(resamplingOrder);
+			}
+
+			// Last step: post-convert
+			postConvertWorkers.add(new PostConvertWorker(dstBuffer, dstRaster, dstBegin, dstEnd));
+		}
+
+		if (step2Workers.isEmpty())
+			return Arrays.asList(preConvertWorkers, step1Workers, postConvertWorkers);
+		else
+			return Arrays.asList(preConvertWorkers, step1Workers, step2Workers, postConvertWorkers);
+	}
+
+	/**
+	 * Describes where the samples of an interleaved raster are located in its data array.
+	 */
+	private static final class InterleavedLayout {
+		private final int   dataOffset;
+		private final int   scanlineStride;
+		private final int   pixelStride;
+		private final int[] bandOffsets;
+
+		private InterleavedLayout(WritableRaster raster) {
+			ComponentSampleModel sampleModel = (ComponentSampleModel)raster.getSampleModel();
+
+			scanlineStride = sampleModel.getScanlineStride();
+			pixelStride = sampleModel.getPixelStride();
+			bandOffsets = sampleModel.getBandOffsets();
+			dataOffset = raster.getDataBuffer().getOffset()
+			             - raster.getSampleModelTranslateY() * scanlineStride
+			             - raster.getSampleModelTranslateX() * pixelStride;
+		}
+
+		private int getRowOffset(int y) {
+			return dataOffset + y * scanlineStride;
+		}
+	}
+
+	private final class PreConvertWorker implements Callable<Void> {
+		private final DataBuffer        inData;
+		private final InterleavedLayout inLayout;
+		private final float[]           outPixels;
+		private final int               begin;
+		private final int               end;
+
+		private PreConvertWorker(WritableRaster inRaster, float[] outPixels, int begin, int end) {
+			inData = inRaster.getDataBuffer();
+			inLayout = new InterleavedLayout(inRaster);
+			this.outPixels = outPixels;
+			this.begin = begin;
+			this.end = end;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
+
+			boolean linearize   = srcIsSRGB && !ignoreSRGB;
+			boolean premultiply = hasAlpha && !srcIsPreAlpha && !dontPreAlpha;
+
+			for (int y = begin; y < end; y++) {
+				int q = y * srcWidth * numChannels;
+
+				if (inData instanceof DataBufferUShort)
+					preConvertRow(((DataBufferUShort)inData).getData(), inLayout.getRowOffset(y), q, linearize);
+				else
+					preConvertRow(((DataBufferFloat)inData).getData(), inLayout.getRowOffset(y), q, linearize);
+
+				if (premultiply)
+					premultiplyRow(q);
+			}
+
+			return null;
+		}
+
+		private void preConvertRow(short[] inPixels, int rowOffset, int q, boolean linearize) {
+			float[] outPixels   = this.outPixels;
+			int     srcWidth    = ImageResamplerFloat.this.srcWidth;
+			int     numChannels = ImageResamplerFloat.this.numChannels;
+			int     pixelStride = inLayout.pixelStride;
+
+			for (int b = 0; b < numChannels; b++) {
+				int p = rowOffset + inLayout.bandOffsets[b];
+				int u = q + b;
+
+				// Alpha channel (always the last band) is always linear
+				if (linearize && !(hasAlpha && b == numChannels - 1)) {
+					for (int x = 0; x < srcWidth; x++) {
+						outPixels[u] = USHORT_SRGB_TO_FLOAT[inPixels[p] & 0xFFFF];
+						p += pixelStride;
+						u += numChannels;
+					}
+				} else {
+					for (int x = 0; x < srcWidth; x++) {
+						outPixels[u] = (inPixels[p] & 0xFFFF) / 65535.0f;
+						p += pixelStride;
+						u += numChannels;
+					}
+				}
+			}
+		}
+
+		private void preConvertRow(float[] inPixels, int rowOffset, int q, boolean linearize) {
+			float[] outPixels   = this.outPixels;
+			int     srcWidth    = ImageResamplerFloat.this.srcWidth;
+			int     numChannels = ImageResamplerFloat.this.numChannels;
+			int     pixelStride = inLayout.pixelStride;
+
+			for (int b = 0; b < numChannels; b++) {
+				int p = rowOffset + inLayout.bandOffsets[b];
+				int u = q + b;
+
+				// Alpha channel (always the last band) is always linear
+				if (linearize && !(hasAlpha && b == numChannels - 1)) {
+					for (int x = 0; x < srcWidth; x++) {
+						float f = inPixels[p];
+						outPixels[u] = f < 0 ? (float)-fromSRGB(-f) : (float)fromSRGB(f);
+						p += pixelStride;
+						u += numChannels;
+					}
+				} else {
+					for (int x = 0; x < srcWidth; x++) {
+						outPixels[u] = inPixels[p];
+						p += pixelStride;
+						u += numChannels;
+					}
+				}
+			}
+		}
+
+		private void premultiplyRow(int q) {
+			float[] outPixels   = this.outPixels;
+			int     numChannels = ImageResamplerFloat.this.numChannels;
+			int     end         = q + srcWidth * numChannels;
+			while (q < end) {
+				float alpha = outPixels[q + numChannels - 1];
+				for (int b = 0; b < numChannels - 1; b++)
+					outPixels[q + b] *= alpha;
+				q += numChannels;
+			}
+		}
+	}
+
+	private final class HorizontalResampleWorker implements Callable<Void> {
+		private final float[] inPixels;
+		private final float[] outPixels;
+		private final int     begin;
+		private final int     end;
+
+		private HorizontalResampleWorker(float[] inPixels, float[] outPixels, int begin, int end) {
+			this.inPixels = inPixels;
+			this.outPixels = outPixels;
+			this.begin = begin;
+			this.end = end;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			int     numSamples     = horizontalSamplingData.getNumSamples();
+			int[]   startsX        = horizontalSamplingData.getStarts();
+			int[]   weightOffsetsX = horizontalSamplingData.getWeightOffsets();
+			float[] weightsX       = horizontalSamplingData.getWeights();
+
+			switch (numChannels) {
+				case 1:
+					horizontalResample1Channel(numSamples, startsX, weightOffsetsX, weightsX);
+					break;
+				case 2:
+					horizontalResample2Channels(numSamples, startsX, weightOffsetsX, weightsX);
+					break;
+				case 3:
+					horizontalResample3Channels(numSamples, startsX, weightOffsetsX, weightsX);
+					break;
+				case 4:
+					horizontalResample4Channels(numSamples, startsX, weightOffsetsX, weightsX);
+					break;
+				default:
+					throw new AssertionError("numChannels: " + numChannels);
+			}
+			return null;
+		}
+
+		private void horizontalResample1Channel(int numSamples, int[] startsX, int[] weightOffsetsX, float[] weightsX) {
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
+
+			float[] inPixels  = this.inPixels;
+			float[] outPixels = this.outPixels;
+			int     end       = this.end;
+			int     srcWidth  = ImageResamplerFloat.this.srcWidth;
+			int     dstWidth  = ImageResamplerFloat.this.dstWidth;
+			for (int y = begin; y < end; y++) {
+				int offset = srcWidth * y;
+				for (int x = 0; x < dstWidth; x++) {
+					float sample0  = 0;
+					int   arrPixel = offset + startsX[x];
+					int   index    = weightOffsetsX[x];
+					for (int i = numSamples; i > 0; i--) {
+						sample0 += inPixels[arrPixel] * weightsX[index];
+						arrPixel++;
+						index++;
+					}
+					outPixels[x + y * dstWidth] = sample0;
+				}
+			}
+		}
+
+		private void horizontalResample2Channels(int numSamples, int[] startsX, int[] weightOffsetsX,
+		                                         float[] weightsX) {
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
+
+			float[] inPixels  = this.inPixels;
+			float[] outPixels = this.outPixels;
+			int     end       = this.end;
+			int     srcWidth  = ImageResamplerFloat.this.srcWidth;
+			int     dstWidth  = ImageResamplerFloat.this.dstWidth;
+			for (int y = begin; y < end; y++) {
+				int offset = srcWidth * y * 2;
+				for (int x = 0; x < dstWidth; x++) {
+					float sample0  = 0;
+					float sample1  = 0;
+					int   arrPixel = offset + startsX[x];
+					int   index    = weightOffsetsX[x];
+					for (int i = numSamples; i > 0; i--) {
+						float weight = weightsX[index];
+						index++;
+
+						sample0 += inPixels[arrPixel] * weight;
+						sample1 += inPixels[arrPixel + 1] * weight;
+						arrPixel += 2;
+					}
+					int u = (x + y * dstWidth) * 2;
+					outPixels[u] = sample0;
+					outPixels[u + 1] = sample1;
+				}
+			}
+		}
+
+		private void horizontalResample3Channels(int numSamples, int[] startsX, int[] weightOffsetsX,
+		                                         float[] weightsX) {
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
+
+			float[] inPixels  = this.inPixels;
+			float[] outPixels = this.outPixels;
+			int     end       = this.end;
+			int     srcWidth  = ImageResamplerFloat.this.srcWidth;
+			int     dstWidth  = ImageResamplerFloat.this.dstWidth;
+			for (int y = begin; y < end; y++) {
+				int offset = srcWidth * y * 3;
+				for (int x = 0; x < dstWidth; x++) {
+					float sample0  = 0;
+					float sample1  = 0;
+					float sample2  = 0;
+					int   arrPixel = offset + startsX[x];
+					int   index    = weightOffsetsX[x];
+					for (int i = numSamples; i > 0; i--) {
+						float weight = weightsX[index];
+						index++;
+
+						sample0 += inPixels[arrPixel] * weight;
+						sample1 += inPixels[arrPixel + 1] * weight;
+						sample2 += inPixels[arrPixel + 2] * weight;
+						arrPixel += 3;
+					}
+					int u = (x + y * dstWidth) * 3;
+					outPixels[u] = sample0;
+					outPixels[u + 1] = sample1;
+					outPixels[u + 2] = sample2;
+				}
+			}
+		}
+
+		private void horizontalResample4Channels(int numSamples, int[] startsX, int[] weightOffsetsX,
+		                                         float[] weightsX) {
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
+
+			float[] inPixels  = this.inPixels;
+			float[] outPixels = this.outPixels;
+			int     end       = this.end;
+			int     srcWidth  = ImageResamplerFloat.this.srcWidth;
+			int     dstWidth  = ImageResamplerFloat.this.dstWidth;
+			for (int y = begin; y < end; y++) {
+				int offset = srcWidth * y * 4;
+				for (int x = 0; x < dstWidth; x++) {
+					float sample0  = 0;
+					float sample1  = 0;
+					float sample2  = 0;
+					float sample3  = 0;
+					int   arrPixel = offset + startsX[x];
+					int   index    = weightOffsetsX[x];
+					for (int i = numSamples; i > 0; i--) {
+						float weight = weightsX[index];
+						index++;
+
+						sample0 += inPixels[arrPixel] * weight;
+						sample1 += inPixels[arrPixel + 1] * weight;
+						sample2 += inPixels[arrPixel + 2] * weight;
+						sample3 += inPixels[arrPixel + 3] * weight;
+						arrPixel += 4;
+					}
+					int u = (x + y * dstWidth) * 4;
+					outPixels[u] = sample0;
+					outPixels[u + 1] = sample1;
+					outPixels[u + 2] = sample2;
+					outPixels[u + 3] = sample3;
+				}
+			}
+		}
+	}
+
+	private final class VerticalResampleWorker implements StripOverlappingWorker {
+		private final float[] inPixels;
+		private final float[] outPixels;
+		private final int     begin;
+		private final int     end;
+		private final int     width;
+
+		private VerticalResampleWorker(float[] inPixels, float[] outPixels, int begin, int end, int width) {
+			this.inPixels = inPixels;
+			this.outPixels = outPixels;
+			this.begin = begin;
+			this.end = end;
+			this.width = width;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
+
+			int     numSamples     = verticalSamplingData.getNumSamples();
+			int     stride         = verticalSamplingData.getPixelStride();
+			int[]   startsY        = verticalSamplingData.getStarts();
+			int[]   weightOffsetsY = verticalSamplingData.getWeightOffsets();
+			float[] weightsY       = verticalSamplingData.getWeights();
+
+			// Vertically, channels don't need to be distinguished: a row is resampled as one long run of samples.
+			float[] inPixels  = this.inPixels;
+			float[] outPixels = this.outPixels;
+			int     end       = this.end;
+			int     rowLength = width * numChannels;
+			for (int y = begin; y < end; y++) {
+				int u     = y * rowLength;
+				int start = startsY[y];
+				int index = weightOffsetsY[y];
+				for (int x = 0; x < rowLength; x++) {
+					float sample0  = 0;
+					int   arrPixel = start + x;
+					for (int i = 0; i < numSamples; i++) {
+						sample0 += inPixels[arrPixel] * weightsY[index + i];
+						arrPixel += stride;
+					}
+					outPixels[u++] = sample0;
+				}
+			}
+			return null;
+		}
+	}
+
+	private final class PostConvertWorker implements Callable<Void> {
+		private final float[]           inPixels;
+		private final DataBuffer        outData;
+		private final InterleavedLayout outLayout;
+		private final int               begin;
+		private final int               end;
+
+		private PostConvertWorker(float[] inPixels, WritableRaster outRaster, int begin, int end) {
+			this.inPixels = inPixels;
+			outData = outRaster.getDataBuffer();
+			outLayout = new InterleavedLayout(outRaster);
+			this.begin = begin;
+			this.end = end;
+		}
+
+		@Override
+		public Void call() throws Exception {
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
+
+			boolean unLinearize   = srcIsSRGB && !ignoreSRGB;
+			boolean unPremultiply = hasAlpha && !srcIsPreAlpha && !dontPreAlpha;
+
+			for (int y = begin; y < end; y++) {
+				int p = y * dstWidth * numChannels;
+
+				if (unPremultiply)
+					unPremultiplyRow(p);
+
+				if (outData instanceof DataBufferUShort)
+					postConvertRow(p, ((DataBufferUShort)outData).getData(), outLayout.getRowOffset(y), unLinearize);
+				else
+					postConvertRow(p, ((DataBufferFloat)outData).getData(), outLayout.getRowOffset(y), unLinearize);
+			}
+
+			return null;
+		}
+
+		private void unPremultiplyRow(int p) {
+			float[] inPixels    = this.inPixels;
+			int     numChannels = ImageResamplerFloat.this.numChannels;
+			int     end         = p + dstWidth * numChannels;
+			while (p < end) {
+				// Alpha over- and undershoot is meaningless, even for HDR images
+				float alpha = inPixels[p + numChannels - 1];
+				alpha = alpha <= 0 ? 0 : alpha >= 1 ? 1 : alpha;
+
+				// Un-premultiply by alpha channel
+				for (int b = 0; b < numChannels - 1; b++)
+					inPixels[p + b] = alpha == 0 ? 0 : inPixels[p + b] / alpha;
+				inPixels[p + numChannels - 1] = alpha;
+				p += numChannels;
+			}
+		}
+
+		private void postConvertRow(int p, short[] outPixels, int rowOffset, boolean unLinearize) {
+			float[] inPixels    = this.inPixels;
+			int     dstWidth    = ImageResamplerFloat.this.dstWidth;
+			int     numChannels = ImageResamplerFloat.this.numChannels;
+			int     pixelStride = outLayout.pixelStride;
+
+			for (int b = 0; b < numChannels; b++) {
+				int u = p + b;
+				int q = rowOffset + outLayout.bandOffsets[b];
+
+				// Alpha channel (always the last band) is always linear
+				boolean encode = unLinearize && !(hasAlpha && b == numChannels - 1);
+				for (int x = 0; x < dstWidth; x++) {
+					float f = encode ? encodeSRGB(inPixels[u]) : inPixels[u];
+					int   s = (int)(f * 65535 + 0.5f);
+					outPixels[q] = s <= 0 ? 0 : s >= 65535 ? -1 : (short)s;
+					u += numChannels;
+					q += pixelStride;
+				}
+			}
+		}
+
+		private void postConvertRow(int p, float[] outPixels, int rowOffset, boolean unLinearize) {
+			float[] inPixels    = this.inPixels;
+			int     dstWidth    = ImageResamplerFloat.this.dstWidth;
+			int     numChannels = ImageResamplerFloat.this.numChannels;
+			int     pixelStride = outLayout.pixelStride;
+
+			for (int b = 0; b < numChannels; b++) {
+				int u = p + b;
+				int q = rowOffset + outLayout.bandOffsets[b];
+
+				// Alpha channel (always the last band) is always linear
+				boolean encode = unLinearize && !(hasAlpha && b == numChannels - 1);
+				for (int x = 0; x < dstWidth; x++) {
+					outPixels[q] = encode ? encodeSRGB(inPixels[u]) : inPixels[u];
+					u += numChannels;
+					q += pixelStride;
+				}
+			}
+		}
+	}
+}
@@ -26,24 +26,41 @@
  */
 package org.digitalmodular.imageutilities.resize;
 
+import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.color.ColorSpace;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import static java.util.Objects.requireNonNull;
 
 import org.digitalmodular.imageutilities.ImageUtilities;
 import org.digitalmodular.imageutilities.ProgressEvent;
+import org.digitalmodular.imageutilities.SizeDouble;
+import org.digitalmodular.imageutilities.SizeInt;
 import org.digitalmodular.imageutilities.internal.DependentWorkerQueue;
 import org.digitalmodular.imageutilities.internal.PerformanceTimer;
+import org.digitalmodular.imageutilities.resize.filter.BoxResamplingCurve;
 import static org.digitalmodular.imageutilities.resize.SamplingDataCalculator.SamplingData;
-import static org.digitalmodular.imageutilities.resize.SamplingDataCalculator.calculateNumSamples;
-import static org.digitalmodular.imageutilities.resize.SamplingDataCalculator.createSubSampling;
 
 /**
  * Based on work from java-image-scaling
@@ -52,6 +69,11 @@ import static org.digitalmodular.imageutilities.resize.SamplingDataCalculator.cr
  * Features:<ul>
  * <li>Compatible images: {@link BufferedImage} with G, AG, BGR, or ABGR interleaved byte data,</li>
  * <li>Internal format: 15 bits per component,</li>
+ * <li>Arithmetic: floating-point, or optionally fixed-point (see {@link #setFixedPoint(boolean)}),</li>
+ * <li>Work buffers: on the heap, or optionally off-heap (see {@link #setOffHeap(boolean)}),</li>
+ * <li>Extreme downscaling: optionally pre-reduced by an integer factor (see {@link #setPreReduce(boolean)}),</li>
+ * <li>Area-averaging: large reductions with {@link BoxResamplingCurve} sum the covered pixels instead of weighting
+ * each one (see {@link AreaAveragingKernel}),</li>
  * <li>Intermediate clamping: no, the 16th bit is used for under/overshoot),</li>
  * <li>Linearity: sRGB correction applied when necessary,</li>
  * <li>Alpha: pre-multiplies when necessary,</li>
@@ -59,6 +81,8 @@ import static org.digitalmodular.imageutilities.resize.SamplingDataCalculator.cr
  * <li>Sub-pixel accurate placement of original image inside resized image,</li>
  * <li>Parallel processing: With smart interleaving. Each resampling step on a chunk of the image starts as soon as
  * the required input chunks become available.</li>
+ * <li>Thread safety: one instance can be shared by concurrent resizes, without locking. Each resize works with a
+ * copy of the settings at the time of the call, and keeps its working data in that copy.</li>
  * </ul>
  * <p>
  * All pages data buffers are in {@code short} format. The values are converted to 15 bits per channel, approximately
@@ -69,6 +93,9 @@ import static org.digitalmodular.imageutilities.resize.SamplingDataCalculator.cr
  * @author Mark Jeronimus
  */
 // Created 2015-08-14
+// Changed 2026-10-16 Each resize works in a copy of the resampler, instead of being synchronized
+// Changed 2026-10-16 resizeAll() runs the workers of all sizes in one queue
+// Changed 2026-10-16 Workers take the image data from the resampler when they run, so plans can reuse them
 public class ImageResamplerShort extends AbstractImageResampler {
 	/** Converts byte to effective range [-16384..16256] */
 	protected static final short[] BYTE_SRGB_TO_SHORT  = new short[256];
@@ -79,6 +106,11 @@ public class ImageResamplerShort extends AbstractImageResampler {
 	/** Converts effective range [0..32640] to byte */
 	protected static final byte[]  SHORT2_TO_BYTE_SRGB = new byte[65536];
 
+	/** The maximum reduction factor that remains for the resampling curve after pre-reduction */
+	private static final int MAX_RESAMPLING_REDUCTION    = 3;
+	/** The number of samples below which mipmap levels aren't divided among threads */
+	private static final int MIN_PARALLEL_MIPMAP_SAMPLES = 65536;
+
 	static {
 		for (int b = 0; b < 256; b++) {
 			double f = (b & 0xFF) / 255.0;
@@ -103,25 +135,343 @@ public class ImageResamplerShort extends AbstractImageResampler {
 		return f < 0.04045f ? f / 12.92f : Math.pow((f + 0.055f) / 1.055f, 2.4);
 	}
 
-	private enum ResamplingOrder {
-		NONE,
-		X_ONLY,
-		Y_ONLY,
-		X_FIRST,
-		Y_FIRST
+	private final PerformanceTimer timer = new PerformanceTimer();
+
+	private ShortResamplingKernel horizontalKernel     = null;
+	private ShortResamplingKernel verticalKernel       = null;
+	/** Replaces {@link #horizontalKernel} when area-averaging */
+	private AreaAveragingKernel   horizontalAreaKernel = null;
+	/** Replaces {@link #verticalKernel} when area-averaging, if the input is backed by an array */
+	private AreaAveragingKernel   verticalAreaKernel   = null;
+
+	private boolean fixedPoint     = false;
+	private boolean lowMemory      = false;
+	private boolean reduceChannels = false;
+	private boolean offHeap        = false;
+	private boolean preReduce      = false;
+
+	private ShortBufferPool bufferPool = ShortBufferPool.getShared();
+
+	/** The palette in the internal format, when resizing an indexed image */
+	private short[] paletteLut        = null;
+	/** The bits per pixel when the palette indices are packed, otherwise 0 */
+	private int     packedPixelBits   = 0;
+	/** The bytes per row when the palette indices are packed */
+	private int     packedRowStride   = 0;
+	/** The channels of the input and output images when resampling with fewer channels, otherwise 0 */
+	private int     storedChannels    = 0;
+
+	/** The input image that the workers read, when they pre-convert */
+	private DataBuffer srcImageData = null;
+	/** The output image that the workers of the last resampling step post-convert to */
+	private DataBuffer dstImageData = null;
+
+	public ImageResamplerShort() { }
+
+	/**
+	 * Creates a context for one resize: a resampler with the same settings as another one, to keep the working data
+	 * of the resize in.
+	 */
+	private ImageResamplerShort(ImageResamplerShort settings) {
+		super(settings);
+		fixedPoint = settings.fixedPoint;
+		lowMemory = settings.lowMemory;
+		reduceChannels = settings.reduceChannels;
+		offHeap = settings.offHeap;
+		preReduce = settings.preReduce;
+		bufferPool = settings.bufferPool;
 	}
 
-	private final PerformanceTimer timer = new PerformanceTimer();
+	public boolean isFixedPoint() { return fixedPoint; }
+
+	/**
+	 * Set whether to resample with fixed-point weights and integer arithmetic instead of floating-point. Default is
+	 * {@code false}.
+	 * <p>
+	 * The weights are quantized to {@value SamplingDataCalculator#WEIGHT_PRECISION} fractional bits, and normalized
+	 * exactly. Results are rounded instead of truncated, and are identical on all platforms and kernels. This is
+	 * usually faster, at the cost of a quantization error of at most one unit in the internal format.
+	 */
+	public void setFixedPoint(boolean fixedPoint) { this.fixedPoint = fixedPoint; }
+
+	public boolean isLowMemory() { return lowMemory; }
+
+	/**
+	 * Set whether to resample in a streaming fashion, to save memory. Default is {@code false}.
+	 * <p>
+	 * Normally, an intermediate buffer the size of the partially resized image is allocated, and sometimes also one
+	 * the size of the input image. In low-memory mode, each worker keeps only the few horizontally resampled rows
+	 * that the current output row depends on, and writes output rows as soon as they're complete. The memory use
+	 * apart from the input and output images is then proportional to the width of the output image times the number
+	 * of samples of the resampling curve.
+	 * <p>
+	 * The downside is that rows at the borders between the strips of the threads are resampled twice. Also, the
+	 * horizontal resampling step always comes first, which is not always the fastest order.
+	 */
+	public void setLowMemory(boolean lowMemory) { this.lowMemory = lowMemory; }
+
+	public boolean isReduceChannels() { return reduceChannels; }
 
-	private SamplingData horizontalSamplingData = null;
-	private SamplingData verticalSamplingData   = null;
+	/**
+	 * Set whether to resample with fewer channels when possible. Default is {@code false}.
+	 * <p>
+	 * Before resampling, the input image is scanned for an alpha channel that is opaque everywhere, and for colors
+	 * that are gray everywhere. Those channels are then left out of resampling, which takes time proportional to the
+	 * number of channels, and are restored when converting to the output image, which keeps the same type. The scan
+	 * stops at the first pixel that's not opaque or gray, so it's cheap for images that can't be reduced.
+	 * <p>
+	 * This applies to byte images only. Indexed images with a gray palette give a gray output image.
+	 * It doesn't apply to {@link #resize(ImageReader, int, int, ImageBandSink)}, which never sees the entire image.
+	 */
+	public void setReduceChannels(boolean reduceChannels) { this.reduceChannels = reduceChannels; }
+
+	public ShortBufferPool getBufferPool() { return bufferPool; }
+
+	/**
+	 * Set the pool to lease the large work buffers from, or {@code null} to allocate new ones for each resize.
+	 * Default is the {@link ShortBufferPool#getShared() shared pool}.
+	 */
+	public void setBufferPool(ShortBufferPool bufferPool) { this.bufferPool = bufferPool; }
+
+	public boolean isOffHeap() { return offHeap; }
+
+	/**
+	 * Set whether to allocate the large work buffers in native memory instead of on the heap. Default is
+	 * {@code false}.
+	 * <p>
+	 * Off-heap buffers are freed as soon as the resize ends, and don't burden the garbage collector. They're accessed
+	 * one row at a time, which costs a copy per row. Buffers of more than 2<sup>31</sup> samples are always
+	 * allocated off-heap, as they don't fit in an array. This needs the {@code java.lang.foreign} package (Java 22,
+	 * or Java 21 with {@code --enable-preview}), and the classes compiled from the {@code src-java22} directory.
+	 * <p>
+	 * This doesn't apply to {@link #setLowMemory(boolean) low-memory} mode, which doesn't allocate large buffers.
+	 */
+	public void setOffHeap(boolean offHeap) { this.offHeap = offHeap; }
+
+	public boolean isPreReduce() { return preReduce; }
+
+	/**
+	 * Set whether to first reduce the image by averaging blocks of pixels, when shrinking by a large factor. Default
+	 * is {@code false}.
+	 * <p>
+	 * The cost of the resampling curve grows with the reduction factor: Lanczos3 at a scale of 0.01 needs 600 input
+	 * samples per output sample. With pre-reduction, the input is first averaged in blocks of a power of two pixels
+	 * (in each direction separately), in linear light with premultiplied alpha, while it's converted to the internal
+	 * format. The block size is chosen so the resampling curve has to reduce at most
+	 * {@value #MAX_RESAMPLING_REDUCTION} times more. This is the same as reducing by a 2&times;2 box filter
+	 * repeatedly, but in a single pass and with a single rounding.
+	 * <p>
+	 * The accuracy loss is bounded:<ul>
+	 * <li>The box filter is narrower than 2/3 of an output pixel, so it attenuates detail at the output's Nyquist
+	 * frequency by at most 18%, and at half of that by at most 5%, on top of the resampling curve. Lower frequencies
+	 * are affected even less.</li>
+	 * <li>The block averages are rounded once, adding an error of at most half a unit in the internal format.</li>
+	 * <li>Blocks that extend beyond the edge of the image repeat the edge pixels, which is the same as
+	 * {@link EdgeMode#CLAMP}, so the placement of the image is unchanged.</li>
+	 * </ul>
+	 * <p>
+	 * The reduced image is kept in memory, also in {@link #setLowMemory(boolean) low-memory} mode. It has at most a
+	 * quarter of the samples of the input image. This doesn't apply to
+	 * {@link #resize(ImageReader, int, int, ImageBandSink)}.
+	 */
+	public void setPreReduce(boolean preReduce) { this.preReduce = preReduce; }
+
+	/**
+	 * Also accepts {@link BufferedImage#TYPE_INT_RGB}, {@link BufferedImage#TYPE_INT_ARGB} and
+	 * {@link BufferedImage#TYPE_INT_ARGB_PRE}, which are converted while resampling. The output image is of the same
+	 * type.
+	 * <p>
+	 * Also accepts {@link BufferedImage#TYPE_BYTE_INDEXED}, of which the palette is converted once, and looked up
+	 * while resampling. The output image is a byte image with 3 or 4 channels, depending on the palette.
+	 * <p>
+	 * Also accepts {@link BufferedImage#TYPE_BYTE_BINARY}, of which the pixels are unpacked while resampling. The
+	 * output image is like for {@code TYPE_BYTE_INDEXED}, except a gray palette (like black and white) gives a gray
+	 * output image, with or without alpha. (This also applies to {@code TYPE_BYTE_INDEXED} when
+	 * {@link #setReduceChannels(boolean) reducing channels})
+	 */
+	@Override
+	public boolean imageIsCompatible(Image image) {
+		return isPackedIntImage(image) || isIndexedImage(image) || super.imageIsCompatible(image);
+	}
+
+	private static boolean isIndexedImage(Image image) {
+		if (!(image instanceof BufferedImage))
+			return false;
+
+		int type = ((BufferedImage)image).getType();
+		return type == BufferedImage.TYPE_BYTE_INDEXED || type == BufferedImage.TYPE_BYTE_BINARY;
+	}
+
+	private static boolean isPackedIntImage(Image image) {
+		if (!(image instanceof BufferedImage))
+			return false;
+
+		int type = ((BufferedImage)image).getType();
+		return type == BufferedImage.TYPE_INT_RGB
+		       || type == BufferedImage.TYPE_INT_ARGB
+		       || type == BufferedImage.TYPE_INT_ARGB_PRE;
+	}
+
+	@Override
+	protected BufferedImage createCompatibleOutputImage(BufferedImage src, int width, int height) {
+		paletteLut = null;
+		packedPixelBits = 0;
+		storedChannels = 0;
+
+		if (isIndexedImage(src))
+			return createIndexedOutputImage(src, width, height);
+		if (!isPackedIntImage(src))
+			return super.createCompatibleOutputImage(src, width, height);
+
+		numChannels = src.getRaster().getNumBands();
+		hasAlpha = src.getColorModel().hasAlpha();
+		srcIsSRGB = true;
+		srcIsPreAlpha = src.getColorModel().isAlphaPremultiplied();
+
+		BufferedImage img = new BufferedImage(width, height, src.getType());
+
+		if (Logger.getGlobal().isLoggable(Level.FINEST))
+			Logger.getGlobal().finest("output img: " + ImageUtilities.analyzeImage(img));
+
+		return img;
+	}
+
+	private BufferedImage createIndexedOutputImage(BufferedImage src, int width, int height) {
+		IndexColorModel colorModel = (IndexColorModel)src.getColorModel();
+		boolean         packed     = src.getType() == BufferedImage.TYPE_BYTE_BINARY;
+		boolean         gray       = (packed || reduceChannels) && isGrayPalette(colorModel);
+
+		int srcColorType = gray ? ColorSpace.CS_GRAY : ImageUtilities.getColorSpaceType(colorModel.getColorSpace());
+		hasAlpha = colorModel.hasAlpha();
+		numChannels = (gray ? 1 : 3) + (hasAlpha ? 1 : 0);
+		srcIsSRGB = srcColorType != ColorSpace.CS_LINEAR_RGB;
+		srcIsPreAlpha = false;
+
+		paletteLut = makePaletteLut(colorModel, gray);
+
+		if (packed) {
+			MultiPixelPackedSampleModel sampleModel = (MultiPixelPackedSampleModel)src.getSampleModel();
+			packedPixelBits = sampleModel.getPixelBitStride();
+			packedRowStride = sampleModel.getScanlineStride();
+		}
+
+		BufferedImage img = ImageUtilities.createByteImage(width, height, numChannels,
+		                                                   srcColorType, hasAlpha, srcIsPreAlpha);
+
+		if (Logger.getGlobal().isLoggable(Level.FINEST))
+			Logger.getGlobal().finest("output img: " + ImageUtilities.analyzeImage(img));
+
+		return img;
+	}
+
+	/**
+	 * Checks if a byte image can be resampled with fewer channels, and if so, changes {@link #numChannels} and
+	 * {@link #hasAlpha} to describe the channels to resample. {@link #storedChannels} then describes the channels of
+	 * the input and output images.
+	 */
+	private void reduceChannels(DataBuffer srcData) {
+		if (!(srcData instanceof DataBufferByte) || paletteLut != null)
+			return;
+
+		byte[] pixels      = ((DataBufferByte)srcData).getData();
+		int    colorOffset = hasAlpha ? 1 : 0;
+		int    numColors   = numChannels - colorOffset;
+
+		boolean opaque = hasAlpha && isOpaque(pixels, numChannels);
+		boolean gray   = numColors == 3 && isGray(pixels, numChannels, colorOffset);
+		if (!opaque && !gray)
+			return;
+
+		storedChannels = numChannels;
+		hasAlpha &= !opaque;
+		numChannels = (gray ? 1 : numColors) + (hasAlpha ? 1 : 0);
+
+		if (Logger.getGlobal().isLoggable(Level.FINEST))
+			Logger.getGlobal().finest("Reduced channels: " + storedChannels + " -> " + numChannels);
+	}
+
+	/**
+	 * Takes over the reduced channels that {@link #reduceChannels(DataBuffer)} determined for another context of the
+	 * same input image.
+	 */
+	private void adoptReducedChannels(ImageResamplerShort context) {
+		if (context.storedChannels == 0)
+			return;
+
+		storedChannels = context.storedChannels;
+		numChannels = context.numChannels;
+		hasAlpha = context.hasAlpha;
+	}
+
+	/**
+	 * Byte images have an alpha channel when they have an even number of channels.
+	 */
+	private boolean hasStoredAlpha() {
+		return storedChannels % 2 == 0;
+	}
+
+	private static boolean isOpaque(byte[] pixels, int numChannels) {
+		for (int p = 0; p < pixels.length; p += numChannels)
+			if (pixels[p] != -1)
+				return false;
+
+		return true;
+	}
+
+	private static boolean isGray(byte[] pixels, int numChannels, int colorOffset) {
+		for (int p = colorOffset; p < pixels.length; p += numChannels)
+			if (pixels[p] != pixels[p + 1] || pixels[p] != pixels[p + 2])
+				return false;
+
+		return true;
+	}
+
+	private static boolean isGrayPalette(IndexColorModel colorModel) {
+		int mapSize = colorModel.getMapSize();
+		for (int i = 0; i < mapSize; i++) {
+			int red = colorModel.getRed(i);
+			if (colorModel.getGreen(i) != red || colorModel.getBlue(i) != red)
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Pre-converts all 256 possible palette entries, in the same way as byte images with the same channels.
+	 * Entries beyond the palette size stay transparent black.
+	 */
+	private short[] makePaletteLut(IndexColorModel colorModel, boolean gray) {
+		byte[] palette = new byte[256 * numChannels];
+
+		int mapSize = Math.min(colorModel.getMapSize(), 256);
+		for (int i = 0; i < mapSize; i++) {
+			int argb = colorModel.getRGB(i);
+			int p    = i * numChannels;
+			if (hasAlpha)
+				palette[p++] = (byte)(argb >>> 24);
+			palette[p++] = (byte)argb;
+			if (!gray) {
+				palette[p++] = (byte)(argb >> 8);
+				palette[p] = (byte)(argb >> 16);
+			}
+		}
+
+		short[] lut = new short[palette.length];
+		preConvert(palette, 0, lut, 0, palette.length);
+		return lut;
+	}
 
 	/**
 	 * @return a resized {@link BufferedImage} or the unmodified input image (
 	 */
-	@SuppressWarnings("ConstantConditions") // Suppress an IntelliJ bug.
 	@Override
-	public synchronized BufferedImage resize(BufferedImage image) throws InterruptedException {
+	public BufferedImage resize(BufferedImage image) throws InterruptedException {
+		return new ImageResamplerShort(this).resizeImage(image);
+	}
+
+	@SuppressWarnings("ConstantConditions") // Suppress an IntelliJ bug.
+	private BufferedImage resizeImage(BufferedImage image) throws InterruptedException {
 		timer.reset();
 		timer.start();
 		fireProgressUpdated(new ProgressEvent(0, -1));
@@ -147,100 +497,708 @@ public class ImageResamplerShort extends AbstractImageResampler {
 		// Create output image with same properties as the input image after pre-conversion
 		BufferedImage out = createCompatibleOutputImage(src);
 
-		// Prepare the work buffers
-		byte[]  srcPixels  = ((DataBufferByte)src.getRaster().getDataBuffer()).getData();
-		short[] srcBuffer  = new short[srcPixels.length];
-		short[] workBuffer = makeWorkBuffer(order);
-		short[] dstBuffer  = new short[dstWidth * dstHeight * numChannels];
-		byte[]  dstPixels  = ((DataBufferByte)out.getRaster().getDataBuffer()).getData();
+		if (reduceChannels)
+			reduceChannels(src.getRaster().getDataBuffer());
+
+		// Prepare the work buffers. The last resampling step always post-converts each row right after it's resampled.
+		DataBuffer        srcData   = src.getRaster().getDataBuffer();
+		ShortSampleBuffer srcBuffer = null;
+		DataBuffer        dstData   = out.getRaster().getDataBuffer();
+
+		try {
+			if (preReduce) {
+				// From here on, the reduced image is the input image.
+				srcBuffer = makeReducedBuffer(srcData);
+				if (srcBuffer != null) {
+					srcData = null;
+					order = determineResampleOrder();
+					timer.record("Reduce");
+				}
+			}
 
-		if (Thread.currentThread().isInterrupted())
-			throw new InterruptedException();
+			// Resampling only horizontally is already streaming.
+			boolean streaming = lowMemory && srcData != null && order != ResamplingOrder.X_ONLY;
+
+			// When resampling horizontally first, each row is pre-converted just before it's resampled.
+			boolean fusePreConvert = srcData != null && (streaming
+			                                             || order == ResamplingOrder.X_ONLY
+			                                             || order == ResamplingOrder.X_FIRST);
+
+			if (srcData != null && !fusePreConvert)
+				srcBuffer = allocateBuffer((long)srcWidth * srcHeight * numChannels);
+
+			resample(order, streaming, fusePreConvert, srcData, srcBuffer, dstData);
+
+			// Only when all workers finished normally, otherwise a cancelled one might still write to it.
+			releaseBuffer(srcBuffer);
+		} finally {
+			// Off-heap memory is freed here. Cancelled workers that still access it will fail harmlessly.
+			if (srcBuffer != null)
+				srcBuffer.close();
+		}
+
+		timer.record("Resize");
+		timer.printResults((long)dstWidth * dstHeight);
+		timer.printTotal();
+		fireProgressCompleted(new ProgressEvent((long)dstWidth * dstHeight, (long)dstWidth * dstHeight));
 
-		timer.record("Allocate");
+		clearWorkingData();
 
-		// Pre-calculate the sub-sampling(s)
-		preCalculateSubSampling(order);
+		return out;
+	}
+
+	/**
+	 * Resizes an image to several sizes at once, for example the responsive sizes of an image on a web page. The
+	 * input image is made compatible and pre-converted to the internal format only once, and each output image is
+	 * resampled from that.
+	 * <p>
+	 * The workers of all sizes run together, in one queue, so the threads that finish the strips of one size early
+	 * continue with the strips of another size instead of waiting. The work buffers of all sizes are therefore
+	 * allocated at the same time.
+	 * <p>
+	 * Each size is resampled from the input image, not from the output of a larger size, so each output image is
+	 * the same as when resized on its own.
+	 * <p>
+	 * The sizes replace the {@link #setOutputSize(SizeInt) output size} and
+	 * {@link #setOutputScaleFactor(SizeDouble) scale factor} for this call only. All other settings apply to each
+	 * size, except {@link #setLowMemory(boolean) low-memory} mode and {@link #setPreReduce(boolean) pre-reduction},
+	 * because the pre-converted input image is kept in memory and shared by all sizes.
+	 *
+	 * @param sizes the sizes of the output images
+	 * @return the output images, in the same order as the sizes. A size that needs no resampling gives the input
+	 * image itself, like {@link #resize(BufferedImage)}.
+	 */
+	public List<BufferedImage> resizeAll(BufferedImage image, List<SizeInt> sizes) throws InterruptedException {
+		requireNonNull(image, "image can't be null");
+		requireNonNull(sizes, "sizes can't be null");
+
+		return new ImageResamplerShort(this).resizeImage(image, sizes);
+	}
+
+	private List<BufferedImage> resizeImage(BufferedImage image, List<SizeInt> sizes) throws InterruptedException {
+
+		timer.reset();
+		timer.start();
+		fireProgressUpdated(new ProgressEvent(0, -1));
+
+		outputScaleFactor = null;
+
+		// A context for each size that needs resampling, so the workers of all sizes can run together.
+		List<BufferedImage>       outs      = new ArrayList<>(sizes.size());
+		List<ImageResamplerShort> contexts  = new ArrayList<>(sizes.size());
+		List<DataBuffer>          dstDatas  = new ArrayList<>(sizes.size());
+		List<ShortSampleBuffer>   buffers   = new ArrayList<>(sizes.size() + 1);
+		long                      numPixels = 0;
+		try {
+			// Create all output images with the same properties as the input image after pre-conversion
+			BufferedImage src = null;
+			for (SizeInt size : sizes) {
+				ImageResamplerShort context = new ImageResamplerShort(this);
+				context.setOutputSize(requireNonNull(size, "sizes can't contain null"));
+				context.calculateDstSizeAndScale(image);
+
+				if (context.determineResampleOrder() == ResamplingOrder.NONE) {
+					outs.add(image);
+				} else {
+					if (src == null)
+						src = makeImageCompatible(image);
+					BufferedImage out = context.createCompatibleOutputImage(src);
+					outs.add(out);
+					contexts.add(context);
+					dstDatas.add(out.getRaster().getDataBuffer());
+				}
+			}
+
+			if (src == null)
+				return outs;
+
+			timer.record("Convert");
+
+			// The first context pre-converts for all of them
+			ImageResamplerShort first   = contexts.get(0);
+			DataBuffer          srcData = src.getRaster().getDataBuffer();
+			if (reduceChannels) {
+				first.reduceChannels(srcData);
+				for (ImageResamplerShort context : contexts)
+					context.adoptReducedChannels(first);
+			}
+
+			ShortSampleBuffer srcBuffer = first.allocateBuffer(
+					(long)first.srcWidth * first.srcHeight * first.numChannels);
+			buffers.add(srcBuffer);
+			first.preConvertAll(srcData, srcBuffer);
+
+			timer.record("Pre-convert");
+
+			// Largest first, so the smaller ones fill the gaps at the end
+			List<Integer> bySize = new ArrayList<>(contexts.size());
+			for (int i = 0; i < contexts.size(); i++)
+				bySize.add(i);
+			bySize.sort(Comparator.comparingLong(i -> -(long)contexts.get(i).dstWidth * contexts.get(i).dstHeight));
+
+			DependentWorkerQueue<Void> workerQueue = new DependentWorkerQueue<>();
+			for (int i : bySize) {
+				ImageResamplerShort context    = contexts.get(i);
+				DataBuffer          dstData    = dstDatas.get(i);
+				ResamplingOrder     order      = context.determineResampleOrder();
+				ShortSampleBuffer   workBuffer = context.makeWorkBuffer(order);
+				buffers.add(workBuffer);
+
+				context.dstImageData = dstData;
+				context.prepareResample(order, false, order == ResamplingOrder.X_FIRST ? workBuffer : srcBuffer);
+				context.addResampleWorkers(workerQueue,
+				                           context.makeWorkerLists(order, false, false, srcBuffer, workBuffer));
+				numPixels += (long)context.dstWidth * context.dstHeight;
+			}
+
+			timer.record("Allocate");
+
+			fireProgressUpdated(new ProgressEvent(0, workerQueue.size()));
+
+			runWorkers(workerQueue);
+
+			if (Thread.currentThread().isInterrupted())
+				throw new InterruptedException();
+
+			// Only when all workers finished normally, otherwise a cancelled one might still access them.
+			for (ShortSampleBuffer buffer : buffers)
+				releaseBuffer(buffer);
+		} finally {
+			// Off-heap memory is freed here. Cancelled workers that still access it will fail harmlessly.
+			for (ShortSampleBuffer buffer : buffers)
+				if (buffer != null)
+					buffer.close();
+
+			for (ImageResamplerShort context : contexts)
+				context.clearWorkingData();
+			clearWorkingData();
+		}
+
+		timer.record("Resize");
+		timer.printResults(numPixels);
+		timer.printTotal();
+		fireProgressCompleted(new ProgressEvent(numPixels, numPixels));
+
+		return outs;
+	}
+
+	/**
+	 * Generates the chain of mipmap levels of an image, for example for textures. Each level is half the size of the
+	 * previous one (rounded down), down to 1&times;1 pixel.
+	 * <p>
+	 * Each level is the area-average of the previous one, in linear light with premultiplied alpha like
+	 * {@link #resize(BufferedImage)}, and with the edges of all levels aligned to the edges of the image. The
+	 * {@link #getFilter() filter} and the output size aren't used. The levels stay in the internal
+	 * format from one level to the next, and are only converted for the output images. The results are rounded, so
+	 * the levels don't get darker.
+	 * <p>
+	 * Large levels are calculated in strips by multiple threads. The remaining levels, with fewer than
+	 * {@value #MIN_PARALLEL_MIPMAP_SAMPLES} samples, are calculated together by one thread.
+	 *
+	 * @return the levels, starting with the input image itself as level 0.
+	 */
+	public List<BufferedImage> generateMipmaps(BufferedImage image) throws InterruptedException {
+		requireNonNull(image, "image can't be null");
+
+		return new ImageResamplerShort(this).generateMipmapLevels(image);
+	}
+
+	private List<BufferedImage> generateMipmapLevels(BufferedImage image) throws InterruptedException {
+
+		timer.reset();
+		timer.start();
+		fireProgressUpdated(new ProgressEvent(0, -1));
+
+		List<BufferedImage> levels = new ArrayList<>();
+		levels.add(image);
+
+		srcWidth = image.getWidth();
+		srcHeight = image.getHeight();
+		if (srcWidth == 1 && srcHeight == 1)
+			return levels;
+
+		BufferedImage src = makeImageCompatible(image);
+
+		timer.record("Convert");
+
+		// Create output images with same properties as the input image after pre-conversion
+		int  width     = srcWidth;
+		int  height    = srcHeight;
+		long numPixels = 0;
+		while (width > 1 || height > 1) {
+			width = Math.max(1, width / 2);
+			height = Math.max(1, height / 2);
+			levels.add(createCompatibleOutputImage(src, width, height));
+			numPixels += (long)width * height;
+		}
+
+		if (reduceChannels)
+			reduceChannels(src.getRaster().getDataBuffer());
+
+		try {
+			MipmapLevel level = null;
+
+			int i = 1;
+			for (; i < levels.size(); i++) {
+				BufferedImage out = levels.get(i);
+				if ((long)out.getWidth() * out.getHeight() * numChannels < MIN_PARALLEL_MIPMAP_SAMPLES)
+					break;
+
+				// The first level pre-converts the input image while resampling it
+				level = level == null ? new MipmapLevel(src, out) : new MipmapLevel(level, out);
+				runWorkers(makeResampleQueue(Collections.singletonList(level.makeWorkers(false))));
+				runWorkers(makeResampleQueue(Collections.singletonList(level.makeWorkers(true))));
+				level.releasePrevious();
+			}
+
+			if (i < levels.size()) {
+				MipmapLevel         firstSmallLevel = level;
+				List<BufferedImage> smallLevels     = levels.subList(i, levels.size());
+				Callable<Void> worker = () -> {
+					MipmapLevel smallLevel = firstSmallLevel;
+					for (BufferedImage out : smallLevels) {
+						smallLevel = smallLevel == null ? new MipmapLevel(src, out) : new MipmapLevel(smallLevel, out);
+						smallLevel.resampleHorizontally(0, smallLevel.srcHeight);
+						smallLevel.resampleVertically(0, smallLevel.height);
+						smallLevel.releasePrevious();
+					}
+
+					return null;
+				};
+
+				runWorkers(makeResampleQueue(Collections.singletonList(Collections.singletonList(worker))));
+			}
+
+			if (Thread.currentThread().isInterrupted())
+				throw new InterruptedException();
+		} finally {
+			clearWorkingData();
+		}
+
+		timer.record("Resize");
+		timer.printResults(numPixels);
+		timer.printTotal();
+		fireProgressCompleted(new ProgressEvent(numPixels, numPixels));
+
+		return levels;
+	}
+
+	/**
+	 * Prepares the resize of many images of the same size and type, for example the frames of a video. See
+	 * {@link ResizePlan}.
+	 * <p>
+	 * The plan uses the settings at the time of the call. {@link #setReduceChannels(boolean) Channel reduction} and
+	 * {@link #setPreReduce(boolean) pre-reduction} don't apply, because they depend on the contents of each image.
+	 *
+	 * @param template an image of the size and type of the images to resize, for example the first one
+	 * @throws IllegalArgumentException when the images don't need resampling, in which case
+	 *                                  {@link #resize(BufferedImage)} just returns them
+	 */
+	public ResizePlan createPlan(BufferedImage template) {
+		requireNonNull(template, "template can't be null");
+
+		return new ResizePlan(new ImageResamplerShort(this), template);
+	}
+
+	/**
+	 * A resize of images of one size and type, prepared once to execute many times. Everything that depends only on
+	 * the geometry is prepared when the plan is created: the resampling order, the sub-sampling, the kernels, the
+	 * work buffers, and the workers of each strip with their dependencies. The workers take the input and output
+	 * images from the plan when they run, so executing the plan only binds the images to it, and runs a copy of the
+	 * prepared queue of workers.
+	 * <p>
+	 * A plan executes one resize at a time. Closing it returns the work buffers to the pool (or frees them, when
+	 * off-heap).
+	 *
+	 * @see #createPlan(BufferedImage)
+	 */
+	public static final class ResizePlan implements AutoCloseable {
+		/** The resampler that holds the prepared working data */
+		private final ImageResamplerShort        context;
+		private final int                        srcType;
+		private final ColorModel                 srcColorModel;
+		/** The template, after making it compatible */
+		private final BufferedImage              compatibleTemplate;
+		private final int                        dstType;
+		private final ColorModel                 dstColorModel;
+		private final ResamplingOrder            order;
+		private final boolean                    streaming;
+		private final boolean                    fusePreConvert;
+		private final ShortSampleBuffer          srcBuffer;
+		private final ShortSampleBuffer          workBuffer;
+		/** Never run itself, only copied for each execution */
+		private final DependentWorkerQueue<Void> workerQueue;
+
+		private boolean closed = false;
+
+		private ResizePlan(ImageResamplerShort context, BufferedImage template) {
+			this.context = context;
+			srcType = template.getType();
+			srcColorModel = template.getColorModel();
+
+			context.reduceChannels = false;
+			context.calculateDstSizeAndScale(template);
+
+			order = context.determineResampleOrder();
+			if (order == ResamplingOrder.NONE)
+				throw new IllegalArgumentException("The images don't need resampling");
+
+			compatibleTemplate = context.makeImageCompatible(template);
+			BufferedImage out = context.createCompatibleOutputImage(compatibleTemplate, 1, 1);
+			dstType = out.getType();
+			dstColorModel = out.getColorModel();
+
+			// Like in resize(BufferedImage)
+			streaming = context.lowMemory && order != ResamplingOrder.X_ONLY;
+			fusePreConvert = streaming || order == ResamplingOrder.X_ONLY || order == ResamplingOrder.X_FIRST;
+
+			srcBuffer = fusePreConvert ? null : context.allocateBuffer(
+					(long)context.srcWidth * context.srcHeight * context.numChannels);
+			workBuffer = streaming ? null : context.makeWorkBuffer(order);
+
+			context.prepareResample(order, streaming, order == ResamplingOrder.X_FIRST ? workBuffer : srcBuffer);
+
+			List<List<Callable<Void>>> workers =
+					streaming ? context.makeStreamingWorkerLists(0, 0, context.dstHeight)
+					          : context.makeWorkerLists(order, true, fusePreConvert, srcBuffer, workBuffer);
+			workerQueue = context.makeResampleQueue(workers);
+		}
+
+		public SizeInt getOutputSize() {
+			return new SizeInt(context.dstWidth, context.dstHeight);
+		}
+
+		/**
+		 * Creates an image to execute this plan to.
+		 */
+		public synchronized BufferedImage createOutputImage() {
+			// This recalculates the same working data as when the plan was created
+			return context.createCompatibleOutputImage(compatibleTemplate);
+		}
+
+		/**
+		 * Resizes an image to a new output image.
+		 *
+		 * @param src an image of the same size, type and color model as the template of this plan
+		 */
+		public synchronized BufferedImage execute(BufferedImage src) throws InterruptedException {
+			BufferedImage dst = createOutputImage();
+			execute(src, dst);
+			return dst;
+		}
+
+		/**
+		 * Resizes an image to an existing output image, for example the output of a previous execution.
+		 *
+		 * @param src an image of the same size, type and color model as the template of this plan
+		 * @param dst an image like the ones {@link #createOutputImage()} creates
+		 */
+		public synchronized void execute(BufferedImage src, BufferedImage dst) throws InterruptedException {
+			requireNonNull(src, "src can't be null");
+			requireNonNull(dst, "dst can't be null");
+			if (closed)
+				throw new IllegalStateException("The plan is closed");
+			if (src.getWidth() != context.srcWidth || src.getHeight() != context.srcHeight
+			    || src.getType() != srcType || !src.getColorModel().equals(srcColorModel))
+				throw new IllegalArgumentException("src doesn't match the template of the plan: " + src);
+			if (dst.getWidth() != context.dstWidth || dst.getHeight() != context.dstHeight
+			    || dst.getType() != dstType || !dst.getColorModel().equals(dstColorModel))
+				throw new IllegalArgumentException("dst doesn't match the output of the plan: " + dst);
+
+			context.srcImageData = context.makeImageCompatible(src).getRaster().getDataBuffer();
+			context.dstImageData = dst.getRaster().getDataBuffer();
+			try {
+				context.runResampleQueue(new DependentWorkerQueue<>(workerQueue));
+			} finally {
+				// Workers that are still running after a cancellation already took the images.
+				context.srcImageData = null;
+				context.dstImageData = null;
+			}
+		}
+
+		@Override
+		public synchronized void close() {
+			if (closed)
+				return;
+
+			closed = true;
+			context.releaseBuffer(srcBuffer);
+			context.releaseBuffer(workBuffer);
+			if (srcBuffer != null)
+				srcBuffer.close();
+			if (workBuffer != null)
+				workBuffer.close();
+			context.clearWorkingData();
+		}
+	}
+
+	/**
+	 * Resamples the input image to the output image, in the given order. Allocates a work buffer if needed.
+	 *
+	 * @param streaming      whether to resample in {@link #setLowMemory(boolean) low-memory} mode
+	 * @param fusePreConvert whether the first resampling step pre-converts the rows of {@code srcData} itself
+	 * @param srcData        the input image data, or {@code null} when {@code srcBuffer} already contains the input
+	 *                       in the internal format
+	 * @param srcBuffer      the pre-converted input image, or {@code null} when {@code srcData} isn't pre-converted
+	 *                       in a separate step
+	 */
+	private void resample(ResamplingOrder order, boolean streaming, boolean fusePreConvert,
+	                      DataBuffer srcData, ShortSampleBuffer srcBuffer, DataBuffer dstData)
+			throws InterruptedException {
+		ShortSampleBuffer workBuffer = streaming ? null : makeWorkBuffer(order);
+
+		try {
+			if (Thread.currentThread().isInterrupted())
+				throw new InterruptedException();
+
+			timer.record("Allocate");
+
+			prepareResample(order, streaming, order == ResamplingOrder.X_FIRST ? workBuffer : srcBuffer);
+			runResample(order, streaming, fusePreConvert, srcData, srcBuffer, workBuffer, dstData);
+
+			// Only when all workers finished normally, otherwise a cancelled one might still write to it.
+			releaseBuffer(workBuffer);
+		} finally {
+			// Off-heap memory is freed here. Cancelled workers that still access it will fail harmlessly.
+			if (workBuffer != null)
+				workBuffer.close();
+		}
+	}
+
+	/**
+	 * Pre-calculates the sub-sampling(s), and selects the kernels.
+	 *
+	 * @param verticalInput the input buffer of the vertical step, or {@code null} if there's none
+	 */
+	private void prepareResample(ResamplingOrder order, boolean streaming, ShortSampleBuffer verticalInput) {
+		// Workers that access whole rows of a buffer need row numbers.
+		if (streaming || verticalInput != null && verticalInput.array() == null)
+			preCalculateStreamingSubSampling(order);
+		else
+			preCalculateSubSampling(order);
+		if (horizontalSamplingData != null)
+			horizontalKernel = ShortResamplingKernels.forNumSamples(horizontalSamplingData.getNumSamples());
+		if (verticalSamplingData != null)
+			verticalKernel = ShortResamplingKernels.forNumSamples(verticalSamplingData.getNumSamples());
+		if (horizontalSamplingData != null && SamplingDataCalculator.isAreaAveraging(filter, widthScaleFactor) &&
+		    AreaAveragingKernel.isHorizontallyApplicable(widthScaleFactor))
+			horizontalAreaKernel = new AreaAveragingKernel(srcWidth, dstWidth, widthScaleFactor, offsetX);
+		if (verticalSamplingData != null && SamplingDataCalculator.isAreaAveraging(filter, heightScaleFactor) &&
+		    AreaAveragingKernel.isVerticallyApplicable(heightScaleFactor))
+			verticalAreaKernel = new AreaAveragingKernel(srcHeight, dstHeight, heightScaleFactor, offsetY);
+	}
+
+	/**
+	 * Builds the queue of parallelizable workers, and runs them, after {@link #prepareResample}.
+	 */
+	private void runResample(ResamplingOrder order, boolean streaming, boolean fusePreConvert,
+	                         DataBuffer srcData, ShortSampleBuffer srcBuffer, ShortSampleBuffer workBuffer,
+	                         DataBuffer dstData) throws InterruptedException {
+		srcImageData = srcData;
+		dstImageData = dstData;
 
-		// Build the queue of parallelizable workers
 		List<List<Callable<Void>>> workers =
-				makeWorkerLists(order, srcPixels, srcBuffer, workBuffer, dstBuffer, dstPixels);
-		DependentWorkerQueue<Void> workerQueue = makeResampleQueue(workers);
+				streaming ? makeStreamingWorkerLists(0, 0, dstHeight)
+				          : makeWorkerLists(order, srcData != null, fusePreConvert, srcBuffer, workBuffer);
+		runResampleQueue(makeResampleQueue(workers));
+	}
 
+	/**
+	 * Runs a queue of workers of one resize, with progress events.
+	 */
+	private void runResampleQueue(DependentWorkerQueue<Void> workerQueue) throws InterruptedException {
 		fireProgressUpdated(new ProgressEvent(0, workerQueue.size()));
 
 		runWorkers(workerQueue);
 
 		if (Thread.currentThread().isInterrupted())
 			throw new InterruptedException();
+	}
 
-		timer.record("Resize");
-		timer.printResults(dstWidth * dstHeight);
-		timer.printTotal();
-		fireProgressCompleted(new ProgressEvent(dstWidth * dstHeight, dstWidth * dstHeight));
+	/**
+	 * Pre-converts the entire input image, in strips.
+	 */
+	private void preConvertAll(DataBuffer srcData, ShortSampleBuffer srcBuffer) throws InterruptedException {
+		srcImageData = srcData;
+
+		int                  numStrips = getNumStrips();
+		List<Callable<Void>> workers   = new ArrayList<>(numStrips);
+		for (int i = 0; i < numStrips; i++) {
+			int begin = i * srcHeight / numStrips;
+			int end   = (i + 1) * srcHeight / numStrips;
+
+			if (begin < end)
+				workers.add(new PreConvertWorker(srcBuffer, begin, end));
+		}
+
+		runWorkers(makeResampleQueue(Collections.singletonList(workers)));
+	}
 
-		// GC this:
+	/**
+	 * Drops the references to the data of the last resize, so it can be garbage collected.
+	 */
+	private void clearWorkingData() {
 		horizontalSamplingData = null;
 		verticalSamplingData = null;
+		horizontalKernel = null;
+		verticalKernel = null;
+		horizontalAreaKernel = null;
+		verticalAreaKernel = null;
+		paletteLut = null;
+		storedChannels = 0;
+		srcImageData = null;
+		dstImageData = null;
+	}
 
-		return out;
+	/**
+	 * Resizes an image that doesn't need to fit in memory, neither the input nor the output. The input image is
+	 * decoded in horizontal bands, and the output image is produced in horizontal bands of {@code bandHeight} rows.
+	 * Each input band contains exactly the rows that the output band depends on, so bands overlap slightly.
+	 * <p>
+	 * Processing is like in {@link #setLowMemory(boolean) low-memory} mode, so the memory use is bounded by the band
+	 * size, not by the image size.
+	 *
+	 * @param reader     a reader with its input set
+	 * @param imageIndex the index of the image to read
+	 * @param bandHeight the maximum number of rows per output band
+	 * @param sink       receives the output bands, in order
+	 */
+	public void resize(ImageReader reader, int imageIndex, int bandHeight, ImageBandSink sink)
+			throws IOException, InterruptedException {
+		requireNonNull(reader, "reader can't be null");
+		requireNonNull(sink, "sink can't be null");
+		if (bandHeight <= 0)
+			throw new IllegalArgumentException("bandHeight must be positive: " + bandHeight);
+
+		new ImageResamplerShort(this).resizeBands(reader, imageIndex, bandHeight, sink);
 	}
 
-	private ResamplingOrder determineResampleOrder() {
-		boolean doX = srcWidth != dstWidth || offsetX != 0;
-		boolean doY = srcHeight != dstHeight || offsetY != 0;
-
-		ResamplingOrder order;
-		if (!doX && !doY)
-			order = ResamplingOrder.NONE;
-		else if (!doY)
-			order = ResamplingOrder.X_ONLY;
-		else if (!doX)
-			order = ResamplingOrder.Y_ONLY;
-		else {
-			// Calculate the work effort of each possible sub-process.
-			// The +1 tweak comes from the store operation for each resampled pixel.
-			long effortXFirst  = (long)srcHeight * dstWidth * (calculateNumSamples(filter, widthScaleFactor) + 1);
-			long effortYSecond = (long)dstWidth * dstHeight * (calculateNumSamples(filter, heightScaleFactor) + 1);
-			long effortYFirst  = (long)srcWidth * dstHeight * (calculateNumSamples(filter, heightScaleFactor) + 1);
-			long effortXSecond = (long)dstHeight * dstWidth * (calculateNumSamples(filter, widthScaleFactor) + 1);
+	private void resizeBands(ImageReader reader, int imageIndex, int bandHeight, ImageBandSink sink)
+			throws IOException, InterruptedException {
 
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest("Efforts: " + effortXFirst + '+' + effortYSecond +
-				                          '=' + (effortXFirst + effortYSecond) +
-				                          " <> " + effortYFirst + '+' + effortXSecond +
-				                          '=' + (effortYFirst + effortXSecond));
+		timer.reset();
+		timer.start();
+		fireProgressUpdated(new ProgressEvent(0, -1));
 
-			if (effortXFirst + effortYSecond <= effortYFirst + effortXSecond)
-				order = ResamplingOrder.X_FIRST;
-			else
-				order = ResamplingOrder.Y_FIRST;
+		calculateDstSizeAndScale(reader.getWidth(imageIndex), reader.getHeight(imageIndex));
+
+		ResamplingOrder order = determineResampleOrder();
+
+		try {
+			// The vertical sub-sampling is needed to determine the bands. The horizontal sub-sampling depends on the
+			// number of channels, which is only known after reading the first band.
+			if (order != ResamplingOrder.NONE && order != ResamplingOrder.X_ONLY) {
+				verticalSamplingData = getSubSampling(
+						filter, srcHeight, dstHeight, heightScaleFactor, offsetY, 1);
+				verticalKernel = ShortResamplingKernels.forNumSamples(verticalSamplingData.getNumSamples());
+			}
+
+			ImageReadParam param = reader.getDefaultReadParam();
+
+			for (int dstBegin = 0; dstBegin < dstHeight; dstBegin += bandHeight) {
+				int dstEnd = Math.min(dstBegin + bandHeight, dstHeight);
+
+				// Determine which input rows this band depends on
+				int srcBegin = dstBegin;
+				int srcEnd   = dstEnd;
+				if (verticalSamplingData != null) {
+					int[] startsY = verticalSamplingData.getStarts();
+					srcBegin = startsY[dstBegin];
+					srcEnd = startsY[dstEnd - 1] + verticalSamplingData.getNumSamples();
+				}
+
+				param.setSourceRegion(new Rectangle(0, srcBegin, srcWidth, srcEnd - srcBegin));
+				BufferedImage band = reader.read(imageIndex, param);
+
+				if (Thread.currentThread().isInterrupted())
+					throw new InterruptedException();
+
+				BufferedImage out;
+				if (order == ResamplingOrder.NONE) {
+					out = band;
+				} else {
+					BufferedImage src = makeImageCompatible(band);
+					out = createCompatibleOutputImage(src, dstWidth, dstEnd - dstBegin);
+
+					if (dstBegin == 0 && order != ResamplingOrder.Y_ONLY) {
+						horizontalSamplingData = getSubSampling(
+								filter, srcWidth, dstWidth, widthScaleFactor, offsetX, numChannels);
+						horizontalKernel = ShortResamplingKernels.forNumSamples(horizontalSamplingData.getNumSamples());
+					}
+
+					srcImageData = src.getRaster().getDataBuffer();
+					dstImageData = out.getRaster().getDataBuffer();
+
+					List<List<Callable<Void>>> workers = makeStreamingWorkerLists(srcBegin, dstBegin, dstEnd);
+					runWorkers(makeResampleQueue(workers));
+
+					if (Thread.currentThread().isInterrupted())
+						throw new InterruptedException();
+				}
+
+				if (dstBegin == 0)
+					sink.begin(dstWidth, dstHeight, ImageTypeSpecifier.createFromRenderedImage(out));
+
+				sink.writeBand(out, dstBegin);
+
+				fireProgressUpdated(new ProgressEvent((long)dstWidth * dstEnd, (long)dstWidth * dstHeight));
+			}
+
+			sink.end();
+		} finally {
+			clearWorkingData();
 		}
 
-		if (Logger.getGlobal().isLoggable(Level.FINEST))
-			Logger.getGlobal().finest("Resampling order: " + order);
+		timer.record("Resize");
+		timer.printResults((long)dstWidth * dstHeight);
+		timer.printTotal();
+		fireProgressCompleted(new ProgressEvent((long)dstWidth * dstHeight, (long)dstWidth * dstHeight));
+	}
 
-		return order;
+	/**
+	 * Convenience method for {@link #resize(ImageReader, int, int, ImageBandSink)} that resizes the first image
+	 * in a stream.
+	 *
+	 * @throws IOException when no reader is found for the stream
+	 */
+	public void resize(ImageInputStream input, int bandHeight, ImageBandSink sink)
+			throws IOException, InterruptedException {
+		Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+		if (!readers.hasNext())
+			throw new IOException("No reader found for the input");
+
+		ImageReader reader = readers.next();
+		try {
+			reader.setInput(input, true, true);
+			resize(reader, 0, bandHeight, sink);
+		} finally {
+			reader.dispose();
+		}
 	}
 
-	private BufferedImage createCompatibleOutputImage(BufferedImage src) {
-		numChannels = src.getRaster().getNumBands();
-		int srcColorType = ImageUtilities.getColorSpaceType(src.getColorModel().getColorSpace());
-		hasAlpha = src.getColorModel().hasAlpha();
-		srcIsSRGB = srcColorType != ColorSpace.CS_LINEAR_RGB;
-		srcIsPreAlpha = src.getColorModel().isAlphaPremultiplied();
-		// IMPROVE: extra check to see if entire palette (except transparent index) is gray
+	private short[] leaseBuffer(int length) {
+		ShortBufferPool bufferPool = this.bufferPool;
+		return bufferPool != null ? bufferPool.lease(length) : new short[length];
+	}
 
-		BufferedImage img = ImageUtilities.createByteImage(dstWidth, dstHeight, numChannels,
-		                                                   srcColorType, hasAlpha, srcIsPreAlpha);
+	/**
+	 * Allocates a work buffer, off-heap when configured or when it's too large for an array, otherwise leased from
+	 * the {@link #getBufferPool() pool}.
+	 */
+	private ShortSampleBuffer allocateBuffer(long length) {
+		if (offHeap || length > ShortSampleBuffers.MAX_ARRAY_LENGTH)
+			return ShortSampleBuffers.allocateOffHeap(length);
 
-		if (Logger.getGlobal().isLoggable(Level.FINEST))
-			Logger.getGlobal().finest("output img: " + ImageUtilities.analyzeImage(img));
+		return ShortSampleBuffers.wrap(leaseBuffer((int)length));
+	}
 
-		return img;
+	private void releaseBuffer(ShortSampleBuffer buffer) {
+		ShortBufferPool bufferPool = this.bufferPool;
+		if (bufferPool != null && buffer != null)
+			bufferPool.release(buffer.array());
 	}
 
-	private short[] makeWorkBuffer(ResamplingOrder resamplingOrder) {
+	private ShortSampleBuffer makeWorkBuffer(ResamplingOrder resamplingOrder) {
 		switch (resamplingOrder) {
 			case X_ONLY:
 			case Y_ONLY:
@@ -248,58 +1206,74 @@ public class ImageResamplerShort extends AbstractImageResampler {
 				return null;
 			case X_FIRST:
 				// First step: use only width from dst
-				return new short[dstWidth * srcHeight * numChannels];
+				return allocateBuffer((long)dstWidth * srcHeight * numChannels);
 			case Y_FIRST:
 				// First step: use only height from dst
-				return new short[srcWidth * dstHeight * numChannels];
+				return allocateBuffer((long)srcWidth * dstHeight * numChannels);
 			default:
 				throw new AssertionError(resamplingOrder);
 		}
 	}
 
-	private void preCalculateSubSampling(ResamplingOrder resampleOrder) {
-		switch (resampleOrder) {
-			case X_ONLY:
-				horizontalSamplingData = createSubSampling(
-						filter, srcWidth, dstWidth, widthScaleFactor, offsetX, numChannels);
-				break;
-			case Y_ONLY:
-				verticalSamplingData = createSubSampling(
-						filter, srcHeight, dstHeight, heightScaleFactor, offsetY, numChannels * srcWidth);
-				break;
-			case X_FIRST:
-				// Pre-calculate sub-sampling
-				horizontalSamplingData = createSubSampling(
-						filter, srcWidth, dstWidth, widthScaleFactor, offsetX, numChannels);
-				verticalSamplingData = createSubSampling(
-						filter, srcHeight, dstHeight, heightScaleFactor, offsetY, numChannels * dstWidth);
-				break;
-			case Y_FIRST:
-				// Pre-calculate sub-sampling
-				verticalSamplingData = createSubSampling(
-						filter, srcHeight, dstHeight, heightScaleFactor, offsetY, numChannels * srcWidth);
-				horizontalSamplingData = createSubSampling(
-						filter, srcWidth, dstWidth, widthScaleFactor, offsetX, numChannels);
-				break;
-			default:
-				throw new AssertionError(resampleOrder);
+	/**
+	 * Like {@link #preCalculateSubSampling(ResamplingOrder)}, except the vertical indices are row numbers instead of
+	 * sample indices, because the streaming workers, and the workers on off-heap buffers, store rows at varying
+	 * positions.
+	 */
+	private void preCalculateStreamingSubSampling(ResamplingOrder resampleOrder) {
+		if (resampleOrder != ResamplingOrder.Y_ONLY)
+			horizontalSamplingData = getSubSampling(
+					filter, srcWidth, dstWidth, widthScaleFactor, offsetX, numChannels);
+
+		if (resampleOrder != ResamplingOrder.X_ONLY)
+			verticalSamplingData = getSubSampling(
+					filter, srcHeight, dstHeight, heightScaleFactor, offsetY, 1);
+	}
+
+	/**
+	 * @param srcBegin the row number of the first row in {@link #srcImageData}
+	 * @param dstBegin the row number of the first row in {@link #dstImageData}
+	 * @param dstEnd   the row after the last destination row
+	 */
+	private List<List<Callable<Void>>> makeStreamingWorkerLists(int srcBegin, int dstBegin, int dstEnd) {
+		int numStrips = getNumStrips();
+
+		// A single layer of independent workers
+		List<Callable<Void>> streamingWorkers = new ArrayList<>(numStrips);
+
+		int numRows = dstEnd - dstBegin;
+		for (int i = 0; i < numStrips; i++) {
+			int begin = dstBegin + i * numRows / numStrips;
+			int end   = dstBegin + (i + 1) * numRows / numStrips;
+
+			if (begin < end)
+				streamingWorkers.add(new StreamingResampleWorker(srcBegin, dstBegin, begin, end));
 		}
+
+		return Collections.singletonList(streamingWorkers);
 	}
 
-	private List<List<Callable<Void>>> makeWorkerLists(ResamplingOrder resamplingOrder,
-	                                                   byte[] srcPixels, short[] srcBuffer,
-	                                                   short[] workBuffer,
-	                                                   short[] dstBuffer, byte[] dstPixels) {
-		int numStrips = getNumThreads() == 0 ? AVAILABLE_PROCESSORS : getNumThreads();
+	/**
+	 * Makes the workers of each strip. They read the input from {@link #srcImageData} and write the output to
+	 * {@link #dstImageData} when they run, so the same workers can run for several images.
+	 *
+	 * @param fromSrcData whether to read the input from {@link #srcImageData}, otherwise {@code srcBuffer} already
+	 *                    contains the input in the internal format
+	 */
+	private List<List<Callable<Void>>> makeWorkerLists(ResamplingOrder resamplingOrder, boolean fromSrcData,
+	                                                   boolean fusePreConvert, ShortSampleBuffer srcBuffer,
+	                                                   ShortSampleBuffer workBuffer) {
+		int numStrips = getNumStrips();
+
+		// Make up to 3 lists of workers for each of the steps in the process.
+		List<Callable<Void>> preConvertWorkers = new ArrayList<>(numStrips);
+		List<Callable<Void>> step1Workers      = new ArrayList<>(numStrips);
+		List<Callable<Void>> step2Workers      = new ArrayList<>(numStrips);
 
-		// Make 4 lists of workers for each of the steps in the process.
-		List<Callable<Void>> preConvertWorkers  = new ArrayList<>(numStrips);
-		List<Callable<Void>> step1Workers       = new ArrayList<>(numStrips);
-		List<Callable<Void>> step2Workers       = new ArrayList<>(numStrips);
-		List<Callable<Void>> postConvertWorkers = new ArrayList<>(numStrips);
+		// When fused, pre-conversion reads directly from srcImageData
+		boolean fused = fromSrcData && fusePreConvert;
 
 		// Divide the rows of the image in approximately equal pieces
-		int numLayers = 0;
 		for (int i = 0; i < numStrips; i++) {
 			int srcBegin = i * srcHeight / numStrips;
 			int srcEnd   = (i + 1) * srcHeight / numStrips;
@@ -307,889 +1281,1452 @@ public class ImageResamplerShort extends AbstractImageResampler {
 			int dstEnd   = (i + 1) * dstHeight / numStrips;
 
 			// First step: pre-convert
-			preConvertWorkers.add(new PreConvertWorker(srcPixels, srcBuffer, srcBegin, srcEnd));
+			if (fromSrcData && !fusePreConvert)
+				preConvertWorkers.add(new PreConvertWorker(srcBuffer, srcBegin, srcEnd));
 
-			// Intermediate steps: X and/or Y resampling
+			// Resampling steps: X and/or Y resampling. The last one also post-converts.
 			switch (resamplingOrder) {
 				case X_ONLY:
-					step1Workers.add(new HorizontalResampleWorker(srcBuffer, dstBuffer, dstBegin, dstEnd));
+					step1Workers.add(new HorizontalResampleWorker(
+							fused, srcBuffer, null, true, dstBegin, dstEnd));
 					break;
 				case Y_ONLY:
-					step1Workers.add(new VerticalResampleWorker(srcBuffer, dstBuffer, dstBegin, dstEnd, srcWidth));
+					step1Workers.add(new VerticalResampleWorker(
+							srcBuffer, null, true, dstBegin, dstEnd, srcWidth));
 					break;
 				case X_FIRST:
-					step1Workers.add(new HorizontalResampleWorker(srcBuffer, workBuffer, srcBegin, srcEnd));
-					step2Workers.add(new VerticalResampleWorker(workBuffer, dstBuffer, dstBegin, dstEnd, dstWidth));
+					step1Workers.add(new HorizontalResampleWorker(
+							fused, srcBuffer, workBuffer, false, srcBegin, srcEnd));
+					step2Workers.add(new VerticalResampleWorker(
+							workBuffer, null, true, dstBegin, dstEnd, dstWidth));
 					break;
 				case Y_FIRST:
-					step1Workers.add(new VerticalResampleWorker(srcBuffer, workBuffer, dstBegin, dstEnd, srcWidth));
-					step2Workers.add(new HorizontalResampleWorker(workBuffer, dstBuffer, dstBegin, dstEnd));
+					step1Workers.add(new VerticalResampleWorker(
+							srcBuffer, workBuffer, false, dstBegin, dstEnd, srcWidth));
+					step2Workers.add(new HorizontalResampleWorker(
+							false, workBuffer, null, true, dstBegin, dstEnd));
 					break;
 				default:
 					throw new AssertionError(resamplingOrder);
 			}
-
-			// Last step: pre-convert
-			postConvertWorkers.add(new PostConvertWorker(dstBuffer, dstPixels, dstBegin, dstEnd));
 		}
 
-		if (step2Workers.isEmpty())
-			return Arrays.asList(preConvertWorkers, step1Workers, postConvertWorkers);
-		else
-			return Arrays.asList(preConvertWorkers, step1Workers, step2Workers, postConvertWorkers);
+		List<List<Callable<Void>>> workers =
+				new ArrayList<>(Arrays.asList(preConvertWorkers, step1Workers, step2Workers));
+		workers.removeIf(List::isEmpty);
+		return workers;
 	}
 
-	private DependentWorkerQueue<Void> makeResampleQueue(List<List<Callable<Void>>> workers) {
-		int numStrips = getNumThreads() == 0 ? AVAILABLE_PROCESSORS : getNumThreads();
+	/**
+	 * Pre-converts rows of {@link #srcImageData}.
+	 */
+	private final class PreConvertWorker implements Callable<Void> {
+		private final ShortSampleBuffer outPixels;
+		private final long              begin;
+		private final long              end;
 
-		DependentWorkerQueue<Void> workerQueue = new DependentWorkerQueue<>();
+		private PreConvertWorker(ShortSampleBuffer outPixels, int begin, int end) {
+			this.outPixels = outPixels;
+			this.begin = (long)begin * srcWidth * numChannels;
+			this.end = (long)end * srcWidth * numChannels;
+		}
 
-		for (int i = 0; i < workers.size(); i++) {
-			List<Callable<Void>> currentLayer = workers.get(i);
-			if (i == 0) {
-				// Workers in the first layer don't have any dependencies
-				currentLayer.forEach(workerQueue::addWorker);
-			} else {
-				// This layer has dependencies on workers in the previous layer
-				List<Callable<Void>> previousLayer = workers.get(i - 1);
+		@Override
+		public Void call() throws Exception {
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
 
-				for (int j = 0; j < numStrips; j++) {
-					Callable<Void> worker = currentLayer.get(j);
+			DataBuffer inData = srcImageData;
+			short[]    out    = outPixels.array();
+			if (out != null) {
+				preConvert(inData, begin, out, (int)begin, end);
+				return null;
+			}
 
-					// Only VerticalResampleWorker needs data of bordering strips
-					int width = 0;
+			// Off-heap: convert one row at a time
+			int     rowLength = srcWidth * numChannels;
+			short[] row       = new short[rowLength];
+			for (long p = begin; p < end; p += rowLength) {
+				preConvert(inData, p, row, 0, p + rowLength);
+				outPixels.set(p, row, 0, rowLength);
+			}
 
-					if (worker instanceof VerticalResampleWorker) {
-						VerticalResampleWorker verticalWorker = ((VerticalResampleWorker)worker);
+			return null;
+		}
+	}
 
-						double scaleFactor = heightScaleFactor < 1 ? 1 / heightScaleFactor : heightScaleFactor;
-						double stripHeight = srcHeight * heightScaleFactor / numStrips;
-						double overlap     = scaleFactor / stripHeight * filter.getRadius();
-						width = (int)Math.ceil(overlap);
-					}
-					// FIXME: just 0 or 1 is not adequate. It fails when strips are narrower than the resampling curve
-					// radius.
+	/**
+	 * Pre-converts the input image while averaging blocks of pixels, when shrinking by more than
+	 * {@value #MAX_RESAMPLING_REDUCTION} times in either direction. The geometry of the resize is then changed to
+	 * resize the reduced image instead.
+	 *
+	 * @return the reduced image, or {@code null} if it doesn't need to be reduced
+	 * @see #setPreReduce(boolean)
+	 */
+	private ShortSampleBuffer makeReducedBuffer(DataBuffer srcData) throws InterruptedException {
+		int blockWidth  = calculateReductionBlockSize(widthScaleFactor);
+		int blockHeight = calculateReductionBlockSize(heightScaleFactor);
+		if (blockWidth == 1 && blockHeight == 1)
+			return null;
 
-					// Create a list of dependencies for this worker
-					Collection<Callable<Void>> dependencies = new ArrayList<>(3);
-					for (int k = j - width; k <= j + width; k++)
-						if (k >= 0 && k < previousLayer.size())
-							dependencies.add(previousLayer.get(k));
+		int reducedWidth  = (srcWidth + blockWidth - 1) / blockWidth;
+		int reducedHeight = (srcHeight + blockHeight - 1) / blockHeight;
 
-					workerQueue.addWorker(worker, dependencies);
-				}
-			}
+		if (Logger.getGlobal().isLoggable(Level.FINEST))
+			Logger.getGlobal().finest("Pre-reduction: " + blockWidth + 'x' + blockHeight + " blocks, " +
+			                          srcWidth + 'x' + srcHeight + " -> " + reducedWidth + 'x' + reducedHeight);
+
+		ShortSampleBuffer reducedBuffer = allocateBuffer((long)reducedWidth * reducedHeight * numChannels);
+
+		int                  numStrips = getNumStrips();
+		List<Callable<Void>> workers   = new ArrayList<>(numStrips);
+		for (int i = 0; i < numStrips; i++) {
+			int begin = i * reducedHeight / numStrips;
+			int end   = (i + 1) * reducedHeight / numStrips;
+
+			if (begin < end)
+				workers.add(new PreReduceWorker(srcData, reducedBuffer, blockWidth, blockHeight, begin, end));
+		}
+
+		try {
+			runWorkers(makeResampleQueue(Collections.singletonList(workers)));
+		} catch (InterruptedException | RuntimeException ex) {
+			reducedBuffer.close();
+			throw ex;
 		}
 
-		return workerQueue;
+		// The reduced pixels are centered on their blocks. Blocks that extend beyond the edge shift the center.
+		offsetX += widthScaleFactor * ((long)reducedWidth * blockWidth - srcWidth) / 2;
+		offsetY += heightScaleFactor * ((long)reducedHeight * blockHeight - srcHeight) / 2;
+		widthScaleFactor *= blockWidth;
+		heightScaleFactor *= blockHeight;
+		srcWidth = reducedWidth;
+		srcHeight = reducedHeight;
+
+		return reducedBuffer;
 	}
 
-	private final class PreConvertWorker implements Callable<Void> {
-		private final byte[]  inPixels;
-		private final short[] outPixels;
-		private final int     begin;
-		private final int     end;
+	/**
+	 * Finds the smallest power of two that, when the image is first reduced by it, leaves a scale factor of at least
+	 * {@code 1 / MAX_RESAMPLING_REDUCTION}.
+	 */
+	private static int calculateReductionBlockSize(double scale) {
+		int blockSize = 1;
+		while (scale * blockSize * MAX_RESAMPLING_REDUCTION < 1)
+			blockSize *= 2;
 
-		private PreConvertWorker(byte[] inPixels, short[] outPixels, int begin, int end) {
-			this.inPixels = inPixels;
+		return blockSize;
+	}
+
+	/**
+	 * Pre-converts the input image, and averages blocks of {@code blockWidth} by {@code blockHeight} pixels. Pixels
+	 * beyond the edge of the input image repeat the edge pixels.
+	 */
+	private final class PreReduceWorker implements Callable<Void> {
+		private final DataBuffer        inData;
+		private final ShortSampleBuffer outPixels;
+		private final int               blockWidth;
+		private final int               blockHeight;
+		private final int               begin;
+		private final int               end;
+
+		// The geometry of the input image, which changes after pre-reduction
+		private final int srcWidth  = ImageResamplerShort.this.srcWidth;
+		private final int srcHeight = ImageResamplerShort.this.srcHeight;
+
+		private PreReduceWorker(DataBuffer inData, ShortSampleBuffer outPixels,
+		                        int blockWidth, int blockHeight, int begin, int end) {
+			this.inData = inData;
 			this.outPixels = outPixels;
-			this.begin = begin * srcWidth * numChannels;
-			this.end = end * srcWidth * numChannels;
+			this.blockWidth = blockWidth;
+			this.blockHeight = blockHeight;
+			this.begin = begin;
+			this.end = end;
 		}
 
 		@Override
 		public Void call() throws Exception {
-			if (!srcIsSRGB || ignoreSRGB) {
-				if (!hasAlpha || srcIsPreAlpha || dontPreAlpha) {
-					// Just convert. (there's no distinction between with and without alpha)
-					preConvert();
-				} else {
-					// Convert, premultiply
-					preConvertAlphaPremultiply();
-				}
-			} else {
-				if (!hasAlpha) {
-					// Convert, linearize
-					preConvertSRGB();
-				} else if (srcIsPreAlpha || dontPreAlpha) {
-					// Convert, linearize colors, not alpha
-					preConvertSRGBAlpha();
-				} else {
-					// Convert, linearize colors, premultiply
-					preConvertSRGBAlphaPremultiply();
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
+
+			int srcRowLength = srcWidth * numChannels;
+			int dstWidth     = (srcWidth + blockWidth - 1) / blockWidth;
+			int dstRowLength = dstWidth * numChannels;
+
+			// Both block sizes are powers of two
+			int  shift    = Integer.numberOfTrailingZeros(blockWidth) + Integer.numberOfTrailingZeros(blockHeight);
+			long rounding = (1L << shift) >> 1;
+
+			short[] srcRow = new short[srcRowLength];
+			short[] dstRow = new short[dstRowLength];
+			long[]  sums   = new long[dstRowLength];
+
+			for (int y = begin; y < end; y++) {
+				Arrays.fill(sums, 0);
+
+				for (int i = 0; i < blockHeight; i++) {
+					int  row = Math.min(y * blockHeight + i, srcHeight - 1);
+					long p   = (long)row * srcRowLength;
+					preConvert(inData, p, srcRow, 0, p + srcRowLength);
+					addBlockRow(srcRow, sums, dstWidth);
 				}
+
+				for (int i = 0; i < dstRowLength; i++)
+					dstRow[i] = (short)((sums[i] + rounding) >> shift);
+
+				outPixels.set((long)y * dstRowLength, dstRow, 0, dstRowLength);
 			}
 
 			return null;
 		}
 
-		private void preConvertAlphaPremultiply() {
-			switch (numChannels) {
-				case 2:
-					preConvertAlphaPremultiply2Channels();
-					break;
-				case 4:
-					preConvertAlphaPremultiply4Channels();
-					break;
-				default:
-					throw new AssertionError("numChannels: " + numChannels);
+		/**
+		 * Adds the samples of one input row to the sums of the blocks they're in.
+		 */
+		private void addBlockRow(short[] srcRow, long[] sums, int dstWidth) {
+			int numChannels = ImageResamplerShort.this.numChannels;
+
+			for (int x = 0; x < dstWidth; x++) {
+				int first = x * blockWidth;
+				int count = Math.min(blockWidth, srcWidth - first);
+				int edge  = (first + count - 1) * numChannels;
+
+				for (int c = 0; c < numChannels; c++) {
+					int sum = 0;
+					for (int p = first * numChannels + c; p <= edge + c; p += numChannels)
+						sum += srcRow[p];
+
+					// The edge pixel repeats beyond the edge
+					sum += srcRow[edge + c] * (blockWidth - count);
+
+					sums[x * numChannels + c] += sum;
+				}
 			}
 		}
+	}
 
-		private void preConvertSRGBAlpha() {
-			switch (numChannels) {
-				case 2:
-					preConvertSRGBAlpha2Channels();
-					break;
-				case 4:
-					preConvertSRGBAlpha4Channels();
-					break;
-				default:
-					throw new AssertionError("numChannels: " + numChannels);
+	/**
+	 * Converts a range of samples from the input image format to the internal format.
+	 * <p>
+	 * The indices count samples, also for packed pixels.
+	 *
+	 * @param p   the index of the first input sample
+	 * @param q   the index of the first output sample
+	 * @param end the index after the last input sample
+	 */
+	private void preConvert(DataBuffer inData, long p, short[] outPixels, int q, long end) {
+		// Pixel indices fit in an int, but sample indices might not, except for byte images.
+		int pixel    = (int)(p / numChannels);
+		int pixelEnd = (int)(end / numChannels);
+		if (inData instanceof DataBufferInt)
+			preConvert(((DataBufferInt)inData).getData(), pixel, outPixels, q, pixelEnd);
+		else if (packedPixelBits != 0)
+			preConvertPacked(((DataBufferByte)inData).getData(), pixel, outPixels, q, pixelEnd);
+		else if (paletteLut != null)
+			preConvertIndexed(((DataBufferByte)inData).getData(), pixel, outPixels, q, pixelEnd);
+		else if (storedChannels != 0)
+			preConvertReduced(((DataBufferByte)inData).getData(), pixel, outPixels, q, pixelEnd);
+		else
+			preConvert(((DataBufferByte)inData).getData(), (int)p, outPixels, q, (int)end);
+	}
+
+	private void preConvert(byte[] inPixels, int p, short[] outPixels, int q, int end) {
+		if (!srcIsSRGB || ignoreSRGB) {
+			if (!hasAlpha || srcIsPreAlpha || dontPreAlpha) {
+				// Just convert. (there's no distinction between with and without alpha)
+				preConvertLinear(inPixels, p, outPixels, q, end);
+			} else {
+				// Convert, premultiply
+				preConvertAlphaPremultiply(inPixels, p, outPixels, q, end);
+			}
+		} else {
+			if (!hasAlpha) {
+				// Convert, linearize
+				preConvertSRGB(inPixels, p, outPixels, q, end);
+			} else if (srcIsPreAlpha || dontPreAlpha) {
+				// Convert, linearize colors, not alpha
+				preConvertSRGBAlpha(inPixels, p, outPixels, q, end);
+			} else {
+				// Convert, linearize colors, premultiply
+				preConvertSRGBAlphaPremultiply(inPixels, p, outPixels, q, end);
 			}
 		}
+	}
 
-		private void preConvertSRGBAlphaPremultiply() {
-			switch (numChannels) {
-				case 2:
-					preConvertSRGBAlphaPremultiply2Channels();
-					break;
-				case 4:
-					preConvertSRGBAlphaPremultiply4Channels();
-					break;
-				default:
-					throw new AssertionError("numChannels: " + numChannels);
-			}
+	private void preConvertAlphaPremultiply(byte[] inPixels, int p, short[] outPixels, int q, int end) {
+		switch (numChannels) {
+			case 2:
+				preConvertAlphaPremultiply2Channels(inPixels, p, outPixels, q, end);
+				break;
+			case 4:
+				preConvertAlphaPremultiply4Channels(inPixels, p, outPixels, q, end);
+				break;
+			default:
+				throw new AssertionError("numChannels: " + numChannels);
 		}
+	}
 
-		private void preConvert() {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+	private void preConvertSRGBAlpha(byte[] inPixels, int p, short[] outPixels, int q, int end) {
+		switch (numChannels) {
+			case 2:
+				preConvertSRGBAlpha2Channels(inPixels, p, outPixels, q, end);
+				break;
+			case 4:
+				preConvertSRGBAlpha4Channels(inPixels, p, outPixels, q, end);
+				break;
+			default:
+				throw new AssertionError("numChannels: " + numChannels);
+		}
+	}
 
-			byte[]  inPixels  = this.inPixels;
-			short[] outPixels = this.outPixels;
-			int     q         = begin;
-			int     p         = begin;
-			int     end       = this.end;
-			while (p < end)
-				// All channels are linear (alpha channel may be present)
-				outPixels[q++] = (short)(((inPixels[p++] & 0xFF) << 7) - 16384);
+	private void preConvertSRGBAlphaPremultiply(byte[] inPixels, int p, short[] outPixels, int q, int end) {
+		switch (numChannels) {
+			case 2:
+				preConvertSRGBAlphaPremultiply2Channels(inPixels, p, outPixels, q, end);
+				break;
+			case 4:
+				preConvertSRGBAlphaPremultiply4Channels(inPixels, p, outPixels, q, end);
+				break;
+			default:
+				throw new AssertionError("numChannels: " + numChannels);
 		}
+	}
 
-		private void preConvertAlphaPremultiply2Channels() {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+	private static void preConvertLinear(byte[] inPixels, int p, short[] outPixels, int q, int end) {
+		while (p < end)
+			// All channels are linear (alpha channel may be present)
+			outPixels[q++] = (short)(((inPixels[p++] & 0xFF) << 7) - 16384);
+	}
 
-			byte[]  inPixels  = this.inPixels;
-			short[] outPixels = this.outPixels;
-			int     q         = begin;
-			int     p         = begin;
-			int     end       = this.end;
-			while (p < end) {
-				int alpha = inPixels[p++] & 0xFF;
-				int gray  = (inPixels[p++] & 0xFF) * 128;
+	private static void preConvertAlphaPremultiply2Channels(byte[] inPixels, int p, short[] outPixels, int q, int end) {
+		while (p < end) {
+			int alpha = inPixels[p++] & 0xFF;
+			int gray  = (inPixels[p++] & 0xFF) * 128;
 
-				// Alpha channel is always linear
-				outPixels[q++] = (short)((alpha << 7) - 16384);
-				// Premultiply by alpha channel
-				outPixels[q++] = (short)(gray * alpha / 255 - 16384);
-			}
+			// Alpha channel is always linear
+			outPixels[q++] = (short)((alpha << 7) - 16384);
+			// Premultiply by alpha channel
+			outPixels[q++] = (short)(gray * alpha / 255 - 16384);
 		}
+	}
 
-		private void preConvertAlphaPremultiply4Channels() {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+	private static void preConvertAlphaPremultiply4Channels(byte[] inPixels, int p, short[] outPixels, int q, int end) {
+		while (p < end) {
+			int alpha = inPixels[p++] & 0xFF;
+			int b     = (inPixels[p++] & 0xFF) * 128;
+			int g     = (inPixels[p++] & 0xFF) * 128;
+			int r     = (inPixels[p++] & 0xFF) * 128;
+
+			// Alpha channel is always linear
+			outPixels[q++] = (short)((alpha << 7) - 16384);
+			// Premultiply by alpha channel
+			outPixels[q++] = (short)(b * alpha / 255 - 16384);
+			outPixels[q++] = (short)(g * alpha / 255 - 16384);
+			outPixels[q++] = (short)(r * alpha / 255 - 16384);
+		}
+	}
+
+	private static void preConvertSRGB(byte[] inPixels, int p, short[] outPixels, int q, int end) {
+		while (p < end)
+			// All channels are linearized (no alpha channel present)
+			outPixels[q++] = BYTE_SRGB_TO_SHORT[inPixels[p++] & 0xFF];
+	}
+
+	private static void preConvertSRGBAlpha2Channels(byte[] inPixels, int p, short[] outPixels, int q, int end) {
+		while (p < end) {
+			int alpha = inPixels[p++] & 0xFF;
+			int gray  = inPixels[p++] & 0xFF;
+
+			// Alpha channel is always linear
+			outPixels[q++] = (short)((alpha << 7) - 16384);
+			// Linearize other channels
+			outPixels[q++] = BYTE_SRGB_TO_SHORT[gray];
+		}
+	}
+
+	private static void preConvertSRGBAlpha4Channels(byte[] inPixels, int p, short[] outPixels, int q, int end) {
+		while (p < end) {
+			int alpha = inPixels[p++] & 0xFF;
+			int b     = inPixels[p++] & 0xFF;
+			int g     = inPixels[p++] & 0xFF;
+			int r     = inPixels[p++] & 0xFF;
+
+			// Alpha channel is always linear
+			outPixels[q++] = (short)((alpha << 7) - 16384);
+			// Linearize other channels
+			outPixels[q++] = BYTE_SRGB_TO_SHORT[b];
+			outPixels[q++] = BYTE_SRGB_TO_SHORT[g];
+			outPixels[q++] = BYTE_SRGB_TO_SHORT[r];
+		}
+	}
+
+	private static void preConvertSRGBAlphaPremultiply2Channels(byte[] inPixels, int p,
+	                                                            short[] outPixels, int q, int end) {
+		while (p < end) {
+			int alpha = inPixels[p++] & 0xFF;
+			int gray  = inPixels[p++] & 0xFF;
 
-			byte[]  inPixels  = this.inPixels;
-			short[] outPixels = this.outPixels;
-			int     q         = begin;
-			int     p         = begin;
-			int     end       = this.end;
-			while (p < end) {
-				int alpha = inPixels[p++] & 0xFF;
-				int b     = (inPixels[p++] & 0xFF) * 128;
-				int g     = (inPixels[p++] & 0xFF) * 128;
-				int r     = (inPixels[p++] & 0xFF) * 128;
+			// Alpha channel is always linear
+			outPixels[q++] = (short)((alpha << 7) - 16384);
+			// Premultiply by alpha channel and linearize other channels
+			outPixels[q++] = (short)(BYTE_SRGB_TO_SHORT2[gray] * alpha / 255 - 16384);
+		}
+	}
+
+	private static void preConvertSRGBAlphaPremultiply4Channels(byte[] inPixels, int p,
+	                                                            short[] outPixels, int q, int end) {
+		while (p < end) {
+			int alpha = inPixels[p++] & 0xFF;
+			int b     = inPixels[p++] & 0xFF;
+			int g     = inPixels[p++] & 0xFF;
+			int r     = inPixels[p++] & 0xFF;
+
+			// Alpha channel is always linear
+			outPixels[q++] = (short)((alpha << 7) - 16384);
+			// Premultiply by alpha channel and linearize other channels
+			outPixels[q++] = (short)(BYTE_SRGB_TO_SHORT2[b] * alpha / 255 - 16384);
+			outPixels[q++] = (short)(BYTE_SRGB_TO_SHORT2[g] * alpha / 255 - 16384);
+			outPixels[q++] = (short)(BYTE_SRGB_TO_SHORT2[r] * alpha / 255 - 16384);
+		}
+	}
+
+	/**
+	 * Converts a range of palette indices to the internal format, by looking them up in the pre-converted palette.
+	 *
+	 * @param p   the index of the first input pixel
+	 * @param q   the index of the first output sample
+	 * @param end the index after the last input pixel
+	 */
+	private void preConvertIndexed(byte[] inPixels, int p, short[] outPixels, int q, int end) {
+		switch (numChannels) {
+			case 3:
+				preConvertIndexed3Channels(inPixels, p, outPixels, q, end, paletteLut);
+				break;
+			case 4:
+				preConvertIndexed4Channels(inPixels, p, outPixels, q, end, paletteLut);
+				break;
+			default:
+				// Gray palettes, with or without alpha
+				preConvertIndexedNChannels(inPixels, p, outPixels, q, end, paletteLut, numChannels);
+		}
+	}
+
+	private static void preConvertIndexedNChannels(byte[] inPixels, int p, short[] outPixels, int q, int end,
+	                                               short[] lut, int numChannels) {
+		while (p < end) {
+			int i = (inPixels[p++] & 0xFF) * numChannels;
+
+			for (int c = 0; c < numChannels; c++)
+				outPixels[q++] = lut[i + c];
+		}
+	}
+
+	private static void preConvertIndexed3Channels(byte[] inPixels, int p, short[] outPixels, int q, int end,
+	                                               short[] lut) {
+		while (p < end) {
+			int i = (inPixels[p++] & 0xFF) * 3;
+
+			outPixels[q++] = lut[i];
+			outPixels[q++] = lut[i + 1];
+			outPixels[q++] = lut[i + 2];
+		}
+	}
+
+	private static void preConvertIndexed4Channels(byte[] inPixels, int p, short[] outPixels, int q, int end,
+	                                               short[] lut) {
+		while (p < end) {
+			int i = (inPixels[p++] & 0xFF) * 4;
+
+			outPixels[q++] = lut[i];
+			outPixels[q++] = lut[i + 1];
+			outPixels[q++] = lut[i + 2];
+			outPixels[q++] = lut[i + 3];
+		}
+	}
+
+	/**
+	 * Converts a range of pixels with more channels than are resampled to the internal format. The channels to
+	 * resample are contiguous in each pixel: the alpha channel is either kept or is the first channel, and a gray
+	 * color is the first of three equal colors.
+	 *
+	 * @param p   the index of the first input pixel
+	 * @param q   the index of the first output sample
+	 * @param end the index after the last input pixel
+	 */
+	private void preConvertReduced(byte[] inPixels, int p, short[] outPixels, int q, int end) {
+		int     stride      = storedChannels;
+		int     numColors   = numChannels - (hasAlpha ? 1 : 0);
+		boolean linear      = !srcIsSRGB || ignoreSRGB;
+		boolean premultiply = hasAlpha && !srcIsPreAlpha && !dontPreAlpha;
+
+		// Skip the alpha channel when it's left out
+		int i = p * stride + (hasStoredAlpha() && !hasAlpha ? 1 : 0);
+		for (; p < end; p++, i += stride) {
+			int j     = i;
+			int alpha = 255;
+			if (hasAlpha) {
+				alpha = inPixels[j++] & 0xFF;
 
 				// Alpha channel is always linear
 				outPixels[q++] = (short)((alpha << 7) - 16384);
-				// Premultiply by alpha channel
-				outPixels[q++] = (short)(b * alpha / 255 - 16384);
-				outPixels[q++] = (short)(g * alpha / 255 - 16384);
-				outPixels[q++] = (short)(r * alpha / 255 - 16384);
+			}
+
+			for (int c = 0; c < numColors; c++) {
+				int value = inPixels[j++] & 0xFF;
+				if (premultiply)
+					outPixels[q++] = (short)((linear ? value * 128 : BYTE_SRGB_TO_SHORT2[value]) * alpha / 255 - 16384);
+				else
+					outPixels[q++] = linear ? (short)((value << 7) - 16384) : BYTE_SRGB_TO_SHORT[value];
 			}
 		}
+	}
 
-		private void preConvertSRGB() {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+	/**
+	 * Converts a range of bit-packed palette indices to the internal format, by unpacking and looking them up in the
+	 * pre-converted palette. Each row starts at a byte boundary.
+	 *
+	 * @param p   the index of the first input pixel
+	 * @param q   the index of the first output sample
+	 * @param end the index after the last input pixel
+	 */
+	private void preConvertPacked(byte[] inPixels, int p, short[] outPixels, int q, int end) {
+		short[] lut           = paletteLut;
+		int     numChannels   = this.numChannels;
+		int     bits          = packedPixelBits;
+		int     mask          = (1 << bits) - 1;
+		int     pixelsPerByte = 8 / bits;
+
+		while (p < end) {
+			int y      = p / srcWidth;
+			int x      = p - y * srcWidth;
+			int rowEnd = Math.min(end, p - x + srcWidth);
+
+			int i     = y * packedRowStride + x / pixelsPerByte;
+			int shift = 8 - bits - x % pixelsPerByte * bits;
+			for (; p < rowEnd; p++) {
+				int index = (inPixels[i] >> shift & mask) * numChannels;
+				for (int c = 0; c < numChannels; c++)
+					outPixels[q++] = lut[index + c];
+
+				shift -= bits;
+				if (shift < 0) {
+					shift = 8 - bits;
+					i++;
+				}
+			}
+		}
+	}
 
-			byte[]  inPixels  = this.inPixels;
-			short[] outPixels = this.outPixels;
-			int     q         = begin;
-			int     p         = begin;
-			int     end       = this.end;
-			while (p < end)
-				// All channels are linearized (no alpha channel present)
-				outPixels[q++] = BYTE_SRGB_TO_SHORT[inPixels[p++] & 0xFF];
+	/**
+	 * Converts a range of packed pixels to the internal format. Each pixel becomes 3 samples (BGR) or 4 samples
+	 * (ABGR), in the same order as the byte images.
+	 *
+	 * @param p   the index of the first input pixel
+	 * @param q   the index of the first output sample
+	 * @param end the index after the last input pixel
+	 */
+	private void preConvert(int[] inPixels, int p, short[] outPixels, int q, int end) {
+		if (!srcIsSRGB || ignoreSRGB) {
+			if (!hasAlpha) {
+				// Just convert.
+				preConvertLinear3Channels(inPixels, p, outPixels, q, end);
+			} else if (srcIsPreAlpha || dontPreAlpha) {
+				// Just convert.
+				preConvertLinear4Channels(inPixels, p, outPixels, q, end);
+			} else {
+				// Convert, premultiply
+				preConvertAlphaPremultiply4Channels(inPixels, p, outPixels, q, end);
+			}
+		} else {
+			if (!hasAlpha) {
+				// Convert, linearize
+				preConvertSRGB3Channels(inPixels, p, outPixels, q, end);
+			} else if (srcIsPreAlpha || dontPreAlpha) {
+				// Convert, linearize colors, not alpha
+				preConvertSRGBAlpha4Channels(inPixels, p, outPixels, q, end);
+			} else {
+				// Convert, linearize colors, premultiply
+				preConvertSRGBAlphaPremultiply4Channels(inPixels, p, outPixels, q, end);
+			}
 		}
+	}
 
-		private void preConvertSRGBAlpha2Channels() {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
-
-			byte[]  inPixels  = this.inPixels;
-			short[] outPixels = this.outPixels;
-			int     q         = begin;
-			int     p         = begin;
-			int     end       = this.end;
-			while (p < end) {
-				int alpha = inPixels[p++] & 0xFF;
-				int gray  = inPixels[p++] & 0xFF;
+	private static void preConvertLinear3Channels(int[] inPixels, int p, short[] outPixels, int q, int end) {
+		while (p < end) {
+			int rgb = inPixels[p++];
 
-				// Alpha channel is always linear
-				outPixels[q++] = (short)((alpha << 7) - 16384);
-				// Linearize other channels
-				outPixels[q++] = BYTE_SRGB_TO_SHORT[gray];
-			}
+			// All channels are linear
+			outPixels[q++] = (short)(((rgb & 0xFF) << 7) - 16384);
+			outPixels[q++] = (short)(((rgb >> 8 & 0xFF) << 7) - 16384);
+			outPixels[q++] = (short)(((rgb >> 16 & 0xFF) << 7) - 16384);
 		}
+	}
 
-		private void preConvertSRGBAlpha4Channels() {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
-
-			byte[]  inPixels  = this.inPixels;
-			short[] outPixels = this.outPixels;
-			int     q         = begin;
-			int     p         = begin;
-			int     end       = this.end;
-			while (p < end) {
-				int alpha = inPixels[p++] & 0xFF;
-				int b     = inPixels[p++] & 0xFF;
-				int g     = inPixels[p++] & 0xFF;
-				int r     = inPixels[p++] & 0xFF;
+	private static void preConvertLinear4Channels(int[] inPixels, int p, short[] outPixels, int q, int end) {
+		while (p < end) {
+			int argb = inPixels[p++];
 
-				// Alpha channel is always linear
-				outPixels[q++] = (short)((alpha << 7) - 16384);
-				// Linearize other channels
-				outPixels[q++] = BYTE_SRGB_TO_SHORT[b];
-				outPixels[q++] = BYTE_SRGB_TO_SHORT[g];
-				outPixels[q++] = BYTE_SRGB_TO_SHORT[r];
-			}
+			// All channels are linear
+			outPixels[q++] = (short)(((argb >>> 24) << 7) - 16384);
+			outPixels[q++] = (short)(((argb & 0xFF) << 7) - 16384);
+			outPixels[q++] = (short)(((argb >> 8 & 0xFF) << 7) - 16384);
+			outPixels[q++] = (short)(((argb >> 16 & 0xFF) << 7) - 16384);
 		}
+	}
 
-		private void preConvertSRGBAlphaPremultiply2Channels() {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+	private static void preConvertAlphaPremultiply4Channels(int[] inPixels, int p, short[] outPixels, int q, int end) {
+		while (p < end) {
+			int argb  = inPixels[p++];
+			int alpha = argb >>> 24;
+			int b     = (argb & 0xFF) * 128;
+			int g     = (argb >> 8 & 0xFF) * 128;
+			int r     = (argb >> 16 & 0xFF) * 128;
+
+			// Alpha channel is always linear
+			outPixels[q++] = (short)((alpha << 7) - 16384);
+			// Premultiply by alpha channel
+			outPixels[q++] = (short)(b * alpha / 255 - 16384);
+			outPixels[q++] = (short)(g * alpha / 255 - 16384);
+			outPixels[q++] = (short)(r * alpha / 255 - 16384);
+		}
+	}
 
-			byte[]  inPixels  = this.inPixels;
-			short[] outPixels = this.outPixels;
-			int     q         = begin;
-			int     p         = begin;
-			int     end       = this.end;
-			while (p < end) {
-				int alpha = inPixels[p++] & 0xFF;
-				int gray  = inPixels[p++] & 0xFF;
+	private static void preConvertSRGB3Channels(int[] inPixels, int p, short[] outPixels, int q, int end) {
+		while (p < end) {
+			int rgb = inPixels[p++];
 
-				// Alpha channel is always linear
-				outPixels[q++] = (short)((alpha << 7) - 16384);
-				// Premultiply by alpha channel and linearize other channels
-				outPixels[q++] = (short)(BYTE_SRGB_TO_SHORT2[gray] * alpha / 255 - 16384);
-			}
+			// All channels are linearized
+			outPixels[q++] = BYTE_SRGB_TO_SHORT[rgb & 0xFF];
+			outPixels[q++] = BYTE_SRGB_TO_SHORT[rgb >> 8 & 0xFF];
+			outPixels[q++] = BYTE_SRGB_TO_SHORT[rgb >> 16 & 0xFF];
 		}
+	}
 
-		private void preConvertSRGBAlphaPremultiply4Channels() {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+	private static void preConvertSRGBAlpha4Channels(int[] inPixels, int p, short[] outPixels, int q, int end) {
+		while (p < end) {
+			int argb = inPixels[p++];
 
-			byte[]  inPixels  = this.inPixels;
-			short[] outPixels = this.outPixels;
-			int     q         = begin;
-			int     p         = begin;
-			int     end       = this.end;
-			while (p < end) {
-				int alpha = inPixels[p++] & 0xFF;
-				int b     = inPixels[p++] & 0xFF;
-				int g     = inPixels[p++] & 0xFF;
-				int r     = inPixels[p++] & 0xFF;
+			// Alpha channel is always linear
+			outPixels[q++] = (short)(((argb >>> 24) << 7) - 16384);
+			// Linearize other channels
+			outPixels[q++] = BYTE_SRGB_TO_SHORT[argb & 0xFF];
+			outPixels[q++] = BYTE_SRGB_TO_SHORT[argb >> 8 & 0xFF];
+			outPixels[q++] = BYTE_SRGB_TO_SHORT[argb >> 16 & 0xFF];
+		}
+	}
 
-				// Alpha channel is always linear
-				outPixels[q++] = (short)((alpha << 7) - 16384);
-				// Premultiply by alpha channel and linearize other channels
-				outPixels[q++] = (short)(BYTE_SRGB_TO_SHORT2[b] * alpha / 255 - 16384);
-				outPixels[q++] = (short)(BYTE_SRGB_TO_SHORT2[g] * alpha / 255 - 16384);
-				outPixels[q++] = (short)(BYTE_SRGB_TO_SHORT2[r] * alpha / 255 - 16384);
-			}
+	private static void preConvertSRGBAlphaPremultiply4Channels(int[] inPixels, int p,
+	                                                            short[] outPixels, int q, int end) {
+		while (p < end) {
+			int argb  = inPixels[p++];
+			int alpha = argb >>> 24;
+
+			// Alpha channel is always linear
+			outPixels[q++] = (short)((alpha << 7) - 16384);
+			// Premultiply by alpha channel and linearize other channels
+			outPixels[q++] = (short)(BYTE_SRGB_TO_SHORT2[argb & 0xFF] * alpha / 255 - 16384);
+			outPixels[q++] = (short)(BYTE_SRGB_TO_SHORT2[argb >> 8 & 0xFF] * alpha / 255 - 16384);
+			outPixels[q++] = (short)(BYTE_SRGB_TO_SHORT2[argb >> 16 & 0xFF] * alpha / 255 - 16384);
 		}
 	}
 
+	/**
+	 * Resamples rows horizontally. Optionally pre-converts each row from {@link #srcImageData} into a scratch row
+	 * first, instead of reading pre-converted rows from {@code inPixels}. Optionally resamples each row into a scratch
+	 * row and post-converts it into {@link #dstImageData}, instead of writing to {@code outPixels}. The scratch rows
+	 * are still in the cache when they're read again, and the full-image buffers they replace don't need to be
+	 * allocated.
+	 * <p>
+	 * Buffers that aren't backed by an array are also accessed through scratch rows.
+	 */
 	private final class HorizontalResampleWorker implements Callable<Void> {
-		private final short[] inPixels;
-		private final short[] outPixels;
-		private final int     begin;
-		private final int     end;
-
-		private HorizontalResampleWorker(short[] inPixels, short[] outPixels, int begin, int end) {
+		private final boolean           fromSrcData;
+		private final ShortSampleBuffer inPixels;
+		private final ShortSampleBuffer outPixels;
+		private final boolean           toDstData;
+		private final int               begin;
+		private final int               end;
+
+		/**
+		 * @param fromSrcData whether to pre-convert from {@link #srcImageData} instead of reading {@code inPixels}
+		 * @param toDstData   whether to post-convert to {@link #dstImageData} instead of writing {@code outPixels}
+		 */
+		private HorizontalResampleWorker(boolean fromSrcData, ShortSampleBuffer inPixels, ShortSampleBuffer outPixels,
+		                                 boolean toDstData, int begin, int end) {
+			this.fromSrcData = fromSrcData;
 			this.inPixels = inPixels;
 			this.outPixels = outPixels;
+			this.toDstData = toDstData;
 			this.begin = begin;
 			this.end = end;
 		}
 
 		@Override
 		public Void call() throws Exception {
-			int     numSamples = horizontalSamplingData.getNumSamples();
-			int[]   indicesX   = horizontalSamplingData.getIndicesX();
-			float[] weightsX   = horizontalSamplingData.getWeightsX();
-
-			switch (numChannels) {
-				case 1:
-					horizontalResample1Channel(numSamples, indicesX, weightsX);
-					break;
-				case 2:
-					horizontalResample2Channels(numSamples, indicesX, weightsX);
-					break;
-				case 3:
-					horizontalResample3Channels(numSamples, indicesX, weightsX);
-					break;
-				case 4:
-					horizontalResample4Channels(numSamples, indicesX, weightsX);
-					break;
-				default:
-					throw new AssertionError("numChannels: " + numChannels);
-			}
-			return null;
-		}
-
-		private void horizontalResample1Channel(int numSamples, int[] indicesX, float[] weightsX) {
 			if (Logger.getGlobal().isLoggable(Level.FINEST))
 				Logger.getGlobal().finest(begin + ".." + end);
 
-			short[] inPixels  = this.inPixels;
-			short[] outPixels = this.outPixels;
-			int     end       = this.end;
-			int     srcWidth  = ImageResamplerShort.this.srcWidth;
-			int     dstWidth  = ImageResamplerShort.this.dstWidth;
+			DataBuffer srcData = fromSrcData ? srcImageData : null;
+			DataBuffer dstData = toDstData ? dstImageData : null;
+
+			int     srcRowLength = srcWidth * numChannels;
+			int     dstRowLength = dstWidth * numChannels;
+			short[] inArray      = inPixels != null ? inPixels.array() : null;
+			short[] outArray     = outPixels != null ? outPixels.array() : null;
+			short[] srcRow       = inArray == null ? new short[srcRowLength] : null;
+			short[] dstRow       = outArray == null ? new short[dstRowLength] : null;
+
 			for (int y = begin; y < end; y++) {
-				int offset = srcWidth * y;
-				for (int x = 0; x < dstWidth; x++) {
-					float sample0 = 0;
-					int   index   = x * numSamples;
-					for (int i = numSamples; i > 0; i--) {
-						sample0 += inPixels[offset + indicesX[index]] * weightsX[index];
-						index++;
-					}
-					outPixels[(x + y * dstWidth)] = (short)sample0;
+				long inIndex = (long)y * srcRowLength;
+				if (srcData != null)
+					preConvert(srcData, inIndex, srcRow, 0, inIndex + srcRowLength);
+				else if (inArray == null)
+					inPixels.get(inIndex, srcRow, 0, srcRowLength);
+
+				short[] in       = inArray != null ? inArray : srcRow;
+				int     inOffset = inArray != null ? (int)inIndex : 0;
+
+				long outIndex = (long)y * dstRowLength;
+				if (outArray != null) {
+					resampleRowHorizontally(in, inOffset, outArray, (int)outIndex);
+				} else {
+					resampleRowHorizontally(in, inOffset, dstRow, 0);
+					if (dstData != null)
+						postConvert(dstRow, 0, dstData, outIndex, dstRowLength);
+					else
+						outPixels.set(outIndex, dstRow, 0, dstRowLength);
 				}
 			}
+
+			return null;
 		}
+	}
 
-		private void horizontalResample2Channels(int numSamples, int[] indicesX, float[] weightsX) {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+	/**
+	 * Resamples one row in the horizontal direction, with the kernel and weights selected for this resize.
+	 */
+	private void resampleRowHorizontally(short[] inPixels, int inOffset, short[] outPixels, int outOffset) {
+		if (horizontalAreaKernel != null) {
+			horizontalAreaKernel.resampleHorizontally(inPixels, inOffset, outPixels, outOffset,
+			                                          numChannels, fixedPoint);
+			return;
+		}
 
-			short[] inPixels  = this.inPixels;
-			short[] outPixels = this.outPixels;
-			int     end       = this.end;
-			int     srcWidth  = ImageResamplerShort.this.srcWidth;
-			int     dstWidth  = ImageResamplerShort.this.dstWidth;
-			for (int y = begin; y < end; y++) {
-				int offset = srcWidth * y * 2;
-				for (int x = 0; x < dstWidth; x++) {
-					float sample0 = 0;
-					float sample1 = 0;
-					int   index   = x * numSamples;
-					for (int i = numSamples; i > 0; i--) {
-						int   arrPixel = offset + indicesX[index];
-						float weight   = weightsX[index];
-						index++;
-
-						sample0 += inPixels[arrPixel] * weight;
-						sample1 += inPixels[arrPixel + 1] * weight;
-					}
-					int u = (x + y * dstWidth) * 2;
-					outPixels[u] = (short)sample0;
-					outPixels[u + 1] = (short)sample1;
-				}
-			}
+		int   numSamples     = horizontalSamplingData.getNumSamples();
+		int[] startsX        = horizontalSamplingData.getStarts();
+		int[] weightOffsetsX = horizontalSamplingData.getWeightOffsets();
+
+		if (fixedPoint) {
+			horizontalKernel.resampleHorizontally(inPixels, inOffset, outPixels, outOffset, dstWidth, numChannels,
+			                                      numSamples, startsX, weightOffsetsX,
+			                                      horizontalSamplingData.getFixedWeights());
+		} else {
+			horizontalKernel.resampleHorizontally(inPixels, inOffset, outPixels, outOffset, dstWidth, numChannels,
+			                                      numSamples, startsX, weightOffsetsX,
+			                                      horizontalSamplingData.getWeights());
+		}
+	}
+
+	/**
+	 * Resamples rows vertically. Optionally resamples each row into a scratch row and post-converts it into
+	 * {@link #dstImageData}, instead of writing to {@code outPixels}.
+	 * <p>
+	 * When {@code inPixels} is not backed by an array, the vertical indices are row numbers, and the rows are copied
+	 * into a window like in {@link StreamingResampleWorker}.
+	 */
+	private final class VerticalResampleWorker implements StripOverlappingWorker {
+		private final ShortSampleBuffer inPixels;
+		private final ShortSampleBuffer outPixels;
+		private final boolean           toDstData;
+		private final int               begin;
+		private final int               end;
+		private final int               width;
+
+		/**
+		 * @param toDstData whether to post-convert to {@link #dstImageData} instead of writing {@code outPixels}
+		 */
+		private VerticalResampleWorker(ShortSampleBuffer inPixels, ShortSampleBuffer outPixels, boolean toDstData,
+		                               int begin, int end, int width) {
+			this.inPixels = inPixels;
+			this.outPixels = outPixels;
+			this.toDstData = toDstData;
+			this.begin = begin;
+			this.end = end;
+			this.width = width;
 		}
 
-		private void horizontalResample3Channels(int numSamples, int[] indicesX, float[] weightsX) {
+		@Override
+		public Void call() throws Exception {
 			if (Logger.getGlobal().isLoggable(Level.FINEST))
 				Logger.getGlobal().finest(begin + ".." + end);
 
-			short[] inPixels  = this.inPixels;
-			short[] outPixels = this.outPixels;
-			int     end       = this.end;
-			int     srcWidth  = ImageResamplerShort.this.srcWidth;
-			int     dstWidth  = ImageResamplerShort.this.dstWidth;
+			DataBuffer dstData    = toDstData ? dstImageData : null;
+			int        numSamples = verticalSamplingData.getNumSamples();
+			int[]      startsY    = verticalSamplingData.getStarts();
+			RowWeights weights    = new RowWeights(verticalSamplingData);
+
+			ShortResamplingKernel kernel      = verticalKernel;
+			int                   numChannels = ImageResamplerShort.this.numChannels;
+			int                   rowLength   = width * numChannels;
+			short[]               inArray     = inPixels.array();
+			short[]               outArray    = outPixels != null ? outPixels.array() : null;
+			short[]               dstRow      = outArray == null ? new short[rowLength] : null;
+			int[]                 indices     = new int[numSamples];
+
+			// Only used when the input is not backed by an array
+			short[] window  = inArray == null ? new short[numSamples * rowLength] : null;
+			int     nextRow = 0;
+
+			// Area-averaging needs random access to the rows
+			AreaAveragingKernel areaKernel = inArray != null ? verticalAreaKernel : null;
+			int[]               sums       = areaKernel != null ? new int[rowLength] : null;
+
 			for (int y = begin; y < end; y++) {
-				int offset = srcWidth * y * 3;
-				for (int x = 0; x < dstWidth; x++) {
-					float sample0 = 0;
-					float sample1 = 0;
-					float sample2 = 0;
-					int   index   = x * numSamples;
-					for (int i = numSamples; i > 0; i--) {
-						int   arrPixel = offset + indicesX[index];
-						float weight   = weightsX[index];
-						index++;
-
-						sample0 += inPixels[arrPixel] * weight;
-						sample1 += inPixels[arrPixel + 1] * weight;
-						sample2 += inPixels[arrPixel + 2] * weight;
-					}
-					int u = (x + y * dstWidth) * 3;
-					outPixels[u] = (short)sample0;
-					outPixels[u + 1] = (short)sample1;
-					outPixels[u + 2] = (short)sample2;
+				short[] in = inArray;
+				verticalSamplingData.getIndices(y, indices);
+				if (inArray == null) {
+					// Load the missing rows
+					int first = startsY[y];
+					int last  = first + numSamples - 1;
+					for (int row = Math.max(nextRow, first); row <= last; row++)
+						inPixels.get((long)row * rowLength, window, row % numSamples * rowLength, rowLength);
+					nextRow = Math.max(nextRow, last + 1);
+
+					for (int i = 0; i < numSamples; i++)
+						indices[i] = indices[i] % numSamples * rowLength;
+
+					in = window;
 				}
-			}
-		}
 
-		private void horizontalResample4Channels(int numSamples, int[] indicesX, float[] weightsX) {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+				short[] out       = outArray != null ? outArray : dstRow;
+				int     outOffset = outArray != null ? y * rowLength : 0;
 
-			short[] inPixels  = this.inPixels;
-			short[] outPixels = this.outPixels;
-			int     end       = this.end;
-			int     srcWidth  = ImageResamplerShort.this.srcWidth;
-			int     dstWidth  = ImageResamplerShort.this.dstWidth;
-			for (int y = begin; y < end; y++) {
-				int offset = srcWidth * y * 4;
-				for (int x = 0; x < dstWidth; x++) {
-					float sample0 = 0;
-					float sample1 = 0;
-					float sample2 = 0;
-					float sample3 = 0;
-					int   index   = x * numSamples;
-					for (int i = numSamples; i > 0; i--) {
-						int   arrPixel = offset + indicesX[index];
-						float weight   = weightsX[index];
-						index++;
-
-						sample0 += inPixels[arrPixel] * weight;
-						sample1 += inPixels[arrPixel + 1] * weight;
-						sample2 += inPixels[arrPixel + 2] * weight;
-						sample3 += inPixels[arrPixel + 3] * weight;
-					}
-					int u = (x + y * dstWidth) * 4;
-					outPixels[u] = (short)sample0;
-					outPixels[u + 1] = (short)sample1;
-					outPixels[u + 2] = (short)sample2;
-					outPixels[u + 3] = (short)sample3;
+				if (areaKernel != null) {
+					areaKernel.resampleVertically(in, out, outOffset, rowLength, y, sums, fixedPoint);
+				} else {
+					weights.load(y);
+					if (fixedPoint)
+						kernel.resampleVertically(in, out, outOffset,
+						                          width, numChannels, numSamples, indices, weights.fixedWeights);
+					else
+						kernel.resampleVertically(in, out, outOffset,
+						                          width, numChannels, numSamples, indices, weights.weights);
+				}
+
+				if (outArray == null) {
+					if (dstData != null)
+						postConvert(dstRow, 0, dstData, (long)y * rowLength, rowLength);
+					else
+						outPixels.set((long)y * rowLength, dstRow, 0, rowLength);
 				}
 			}
+
+			return null;
 		}
 	}
 
-	private final class VerticalResampleWorker implements Callable<Void> {
-		private final short[] inPixels;
-		private final short[] outPixels;
-		private final int     begin;
-		private final int     end;
-		private final int     width;
-
-		private VerticalResampleWorker(short[] inPixels, short[] outPixels, int begin, int end, int width) {
-			this.inPixels = inPixels;
-			this.outPixels = outPixels;
+	/**
+	 * Resamples a strip of output rows in one go, from input pixels to output pixels. Input rows are pre-converted
+	 * and horizontally resampled into a window of as many rows as the vertical resampling needs. The window is a
+	 * ring buffer: each row is stored at its row number modulo the window size. As soon as all rows an output row
+	 * depends on are in the window, the output row is vertically resampled and post-converted.
+	 * <p>
+	 * The pixel arrays may hold only a part of the image, starting at some row. Either resampling step may be absent.
+	 */
+	private final class StreamingResampleWorker implements Callable<Void> {
+		private final int srcBegin;
+		private final int dstBegin;
+		private final int begin;
+		private final int end;
+
+		/**
+		 * @param srcBegin the row number of the first row in {@link #srcImageData}
+		 * @param dstBegin the row number of the first row in {@link #dstImageData}
+		 */
+		private StreamingResampleWorker(int srcBegin, int dstBegin, int begin, int end) {
+			this.srcBegin = srcBegin;
+			this.dstBegin = dstBegin;
 			this.begin = begin;
 			this.end = end;
-			this.width = width;
 		}
 
 		@Override
 		public Void call() throws Exception {
-			int       numSamples = verticalSamplingData.getNumSamples();
-			int[][]   indicesY   = verticalSamplingData.getIndicesY();
-			float[][] weightsY   = verticalSamplingData.getWeightsY();
+			if (Logger.getGlobal().isLoggable(Level.FINEST))
+				Logger.getGlobal().finest(begin + ".." + end);
 
-			switch (numChannels) {
-				case 1:
-					verticalResample1Channel(numSamples, indicesY, weightsY);
-					break;
-				case 2:
-					verticalResample2Channels(numSamples, indicesY, weightsY);
-					break;
-				case 3:
-					verticalResample3Channels(numSamples, indicesY, weightsY);
-					break;
-				case 4:
-					verticalResample4Channels(numSamples, indicesY, weightsY);
-					break;
-				default:
-					throw new AssertionError("numChannels: " + numChannels);
+			DataBuffer srcData = srcImageData;
+			DataBuffer dstData = dstImageData;
+
+			int     srcRowLength = srcWidth * numChannels;
+			int     dstRowLength = dstWidth * numChannels;
+			short[] srcRow       = horizontalSamplingData != null ? new short[srcRowLength] : null;
+			short[] dstRow       = new short[dstRowLength];
+
+			if (verticalSamplingData == null) {
+				// Rows map one-to-one
+				for (int y = begin; y < end; y++) {
+					long p = (long)(y - srcBegin) * srcRowLength;
+					preConvert(srcData, p, srcRow, 0, p + srcRowLength);
+					resampleRowHorizontally(srcRow, 0, dstRow, 0);
+					postConvert(dstRow, 0, dstData, (long)(y - dstBegin) * dstRowLength, dstRowLength);
+				}
+
+				return null;
 			}
-			return null;
-		}
 
-		private void verticalResample1Channel(int numSamples, int[][] indicesY, float[][] weightsY) {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+			int        numSamples = verticalSamplingData.getNumSamples();
+			int[]      startsY    = verticalSamplingData.getStarts();
+			RowWeights weights    = new RowWeights(verticalSamplingData);
 
-			short[] inPixels  = this.inPixels;
-			short[] outPixels = this.outPixels;
-			int     end       = this.end;
-			int     width     = this.width;
+			short[] window  = new short[numSamples * dstRowLength];
+			int[]   indices = new int[numSamples];
+
+			int nextRow = 0;
 			for (int y = begin; y < end; y++) {
-				int     u       = y * width;
-				int[]   indices = indicesY[y];
-				float[] weights = weightsY[y];
-				for (int x = 0; x < width; x++) {
-					float sample0 = 0;
-					for (int i = 0; i < numSamples; i++) {
-						sample0 += inPixels[x + indices[i]] * weights[i];
+				int first = startsY[y];
+				int last  = first + numSamples - 1;
+
+				// Load the missing rows. Rows that no output row depends on are skipped.
+				for (int row = Math.max(nextRow, first); row <= last; row++) {
+					long p = (long)(row - srcBegin) * srcRowLength;
+					int  q = row % numSamples * dstRowLength;
+					if (srcRow != null) {
+						preConvert(srcData, p, srcRow, 0, p + srcRowLength);
+						resampleRowHorizontally(srcRow, 0, window, q);
+					} else {
+						preConvert(srcData, p, window, q, p + srcRowLength);
 					}
-					outPixels[u++] = (short)sample0;
 				}
+				nextRow = Math.max(nextRow, last + 1);
+
+				for (int i = 0; i < numSamples; i++)
+					indices[i] = (first + i) % numSamples * dstRowLength;
+
+				weights.load(y);
+				if (fixedPoint)
+					verticalKernel.resampleVertically(window, dstRow, 0, dstWidth, numChannels,
+					                                  numSamples, indices, weights.fixedWeights);
+				else
+					verticalKernel.resampleVertically(window, dstRow, 0, dstWidth, numChannels,
+					                                  numSamples, indices, weights.weights);
+
+				postConvert(dstRow, 0, dstData, (long)(y - dstBegin) * dstRowLength, dstRowLength);
 			}
+
+			return null;
 		}
+	}
 
-		private void verticalResample2Channels(int numSamples, int[][] indicesY, float[][] weightsY) {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+	/**
+	 * One level of a mipmap chain, resampled from the previous level, or from the input image for the first level.
+	 * Horizontal resampling goes to a temporary buffer, and vertical resampling to the level in the internal format,
+	 * which is also post-converted to the output image.
+	 */
+	private final class MipmapLevel {
+		/** The previous level, or {@code null} when resampling from {@link #srcData} */
+		private final MipmapLevel         previous;
+		private final DataBuffer          srcData;
+		private final int                 srcWidth;
+		private final int                 srcHeight;
+		private final int                 width;
+		private final int                 height;
+		private final AreaAveragingKernel horizontalKernel;
+		private final AreaAveragingKernel verticalKernel;
+		/** Horizontally resampled rows, {@code width} by {@code srcHeight} pixels */
+		private final short[]             temp;
+		/** This level in the internal format */
+		private final short[]             pixels;
+		private final DataBuffer          dstData;
+
+		private MipmapLevel(BufferedImage src, BufferedImage out) {
+			this(null, src.getRaster().getDataBuffer(), src.getWidth(), src.getHeight(), out);
+		}
 
-			short[] inPixels  = this.inPixels;
-			short[] outPixels = this.outPixels;
-			int     end       = this.end;
-			int     width     = this.width;
-			for (int y = begin; y < end; y++) {
-				int     u       = y * width * 2;
-				int[]   indices = indicesY[y];
-				float[] weights = weightsY[y];
-				for (int x = 0; x < width; x++) {
-					float sample0 = 0;
-					float sample1 = 0;
-					for (int i = 0; i < numSamples; i++) {
-						int   arrPixel = x * 2 + indices[i];
-						float weight   = weights[i];
-
-						sample0 += inPixels[arrPixel] * weight;
-						sample1 += inPixels[arrPixel + 1] * weight;
-					}
-					outPixels[u++] = (short)sample0;
-					outPixels[u++] = (short)sample1;
+		private MipmapLevel(MipmapLevel previous, BufferedImage out) {
+			this(previous, null, previous.width, previous.height, out);
+		}
+
+		private MipmapLevel(MipmapLevel previous, DataBuffer srcData, int srcWidth, int srcHeight,
+		                    BufferedImage out) {
+			this.previous = previous;
+			this.srcData = srcData;
+			this.srcWidth = srcWidth;
+			this.srcHeight = srcHeight;
+			width = out.getWidth();
+			height = out.getHeight();
+			horizontalKernel = new AreaAveragingKernel(srcWidth, width, width / (double)srcWidth, 0);
+			verticalKernel = new AreaAveragingKernel(srcHeight, height, height / (double)srcHeight, 0);
+			temp = leaseBuffer(Math.toIntExact((long)width * srcHeight * numChannels));
+			pixels = leaseBuffer(Math.toIntExact((long)width * height * numChannels));
+			dstData = out.getRaster().getDataBuffer();
+		}
+
+		/**
+		 * Makes the workers of one step, in strips. The vertical step can only start when the horizontal step is
+		 * finished.
+		 *
+		 * @param vertical whether to make the workers of the vertical step
+		 */
+		private List<Callable<Void>> makeWorkers(boolean vertical) {
+			int numStrips = getNumStrips();
+			int numRows   = vertical ? height : srcHeight;
+
+			List<Callable<Void>> workers = new ArrayList<>(numStrips);
+			for (int i = 0; i < numStrips; i++) {
+				int begin = i * numRows / numStrips;
+				int end   = (i + 1) * numRows / numStrips;
+
+				if (begin < end) {
+					workers.add(() -> {
+						if (vertical)
+							resampleVertically(begin, end);
+						else
+							resampleHorizontally(begin, end);
+						return null;
+					});
 				}
 			}
+
+			return workers;
 		}
 
-		private void verticalResample3Channels(int numSamples, int[][] indicesY, float[][] weightsY) {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+		/**
+		 * Returns the buffers that aren't needed anymore to the pool, when this level is finished: the temporary
+		 * buffer, and the previous level in the internal format.
+		 */
+		private void releasePrevious() {
+			releaseBuffer(ShortSampleBuffers.wrap(temp));
+			if (previous != null)
+				releaseBuffer(ShortSampleBuffers.wrap(previous.pixels));
+		}
+
+		private void resampleHorizontally(int begin, int end) {
+			int     srcRowLength = srcWidth * numChannels;
+			int     rowLength    = width * numChannels;
+			short[] srcRow       = srcData != null ? new short[srcRowLength] : null;
 
-			short[] inPixels  = this.inPixels;
-			short[] outPixels = this.outPixels;
-			int     end       = this.end;
-			int     width     = this.width;
 			for (int y = begin; y < end; y++) {
-				int     u       = y * width * 3;
-				int[]   indices = indicesY[y];
-				float[] weights = weightsY[y];
-				for (int x = 0; x < width; x++) {
-					float sample0 = 0;
-					float sample1 = 0;
-					float sample2 = 0;
-					for (int i = 0; i < numSamples; i++) {
-						int   arrPixel = x * 3 + indices[i];
-						float weight   = weights[i];
-
-						sample0 += inPixels[arrPixel] * weight;
-						sample1 += inPixels[arrPixel + 1] * weight;
-						sample2 += inPixels[arrPixel + 2] * weight;
-					}
-					outPixels[u++] = (short)sample0;
-					outPixels[u++] = (short)sample1;
-					outPixels[u++] = (short)sample2;
+				if (srcData != null) {
+					long p = (long)y * srcRowLength;
+					preConvert(srcData, p, srcRow, 0, p + srcRowLength);
+					horizontalKernel.resampleHorizontally(srcRow, 0, temp, y * rowLength, numChannels, true);
+				} else {
+					horizontalKernel.resampleHorizontally(previous.pixels, y * srcRowLength, temp, y * rowLength,
+					                                      numChannels, true);
 				}
 			}
 		}
 
-		private void verticalResample4Channels(int numSamples, int[][] indicesY, float[][] weightsY) {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+		private void resampleVertically(int begin, int end) {
+			int   rowLength = width * numChannels;
+			int[] sums      = new int[rowLength];
 
-			short[] inPixels  = this.inPixels;
-			short[] outPixels = this.outPixels;
-			int     end       = this.end;
-			int     width     = this.width;
 			for (int y = begin; y < end; y++) {
-				int     u       = y * width * 4;
-				int[]   indices = indicesY[y];
-				float[] weights = weightsY[y];
-				for (int x = 0; x < width; x++) {
-					float sample0 = 0;
-					float sample1 = 0;
-					float sample2 = 0;
-					float sample3 = 0;
-					for (int i = 0; i < numSamples; i++) {
-						int   arrPixel = x * 4 + indices[i];
-						float weight   = weights[i];
-
-						sample0 += inPixels[arrPixel] * weight;
-						sample1 += inPixels[arrPixel + 1] * weight;
-						sample2 += inPixels[arrPixel + 2] * weight;
-						sample3 += inPixels[arrPixel + 3] * weight;
-					}
-					outPixels[u++] = (short)sample0;
-					outPixels[u++] = (short)sample1;
-					outPixels[u++] = (short)sample2;
-					outPixels[u++] = (short)sample3;
-				}
+				verticalKernel.resampleVertically(temp, pixels, y * rowLength, rowLength, y, sums, true);
+				postConvert(pixels, y * rowLength, dstData, (long)y * rowLength, (y + 1) * rowLength);
 			}
 		}
 	}
 
-	private final class PostConvertWorker implements Callable<Void> {
-		private final short[] inPixels;
-		private final byte[]  outPixels;
-		private final int     begin;
-		private final int     end;
+	/**
+	 * The weights of one output row at a time, in the form the vertical kernels take. Only the weights of the
+	 * selected arithmetic are copied.
+	 */
+	private final class RowWeights {
+		private final int     numSamples;
+		private final int[]   weightOffsets;
+		private final float[] allWeights;
+		private final int[]   allFixedWeights;
+		private final float[] weights;
+		private final int[]   fixedWeights;
+
+		private RowWeights(SamplingData samplingData) {
+			numSamples = samplingData.getNumSamples();
+			weightOffsets = samplingData.getWeightOffsets();
+			allWeights = fixedPoint ? null : samplingData.getWeights();
+			allFixedWeights = fixedPoint ? samplingData.getFixedWeights() : null;
+			weights = fixedPoint ? null : new float[numSamples];
+			fixedWeights = fixedPoint ? new int[numSamples] : null;
+		}
 
-		private PostConvertWorker(short[] inPixels, byte[] outPixels, int begin, int end) {
-			this.inPixels = inPixels;
-			this.outPixels = outPixels;
-			this.begin = begin * dstWidth * numChannels;
-			this.end = end * dstWidth * numChannels;
+		private void load(int y) {
+			if (fixedPoint)
+				System.arraycopy(allFixedWeights, weightOffsets[y], fixedWeights, 0, numSamples);
+			else
+				System.arraycopy(allWeights, weightOffsets[y], weights, 0, numSamples);
 		}
+	}
 
-		@Override
-		public Void call() throws Exception {
-			// Un-linearize or not?
-			if (!srcIsSRGB || ignoreSRGB) {
-				if (!hasAlpha || srcIsPreAlpha || dontPreAlpha) {
-					// Just convert. (there's no distinction between with and without alpha)
-					postConvert();
-				} else {
-					// Convert, un-premultiply
-					postConvertAlphaUnPremultiply();
-				}
+	/**
+	 * Converts a range of samples from the internal format to the output image format.
+	 * <p>
+	 * The indices count samples, also for packed pixels.
+	 *
+	 * @param p   the index of the first input sample
+	 * @param q   the index of the first output sample
+	 * @param end the index after the last input sample
+	 */
+	private void postConvert(short[] inPixels, int p, DataBuffer outData, long q, int end) {
+		// Pixel indices fit in an int, but sample indices might not, except for byte images.
+		if (outData instanceof DataBufferInt)
+			postConvert(inPixels, p, ((DataBufferInt)outData).getData(), (int)(q / numChannels), end);
+		else if (storedChannels != 0)
+			postConvertReduced(inPixels, p, ((DataBufferByte)outData).getData(), (int)(q / numChannels), end);
+		else
+			postConvert(inPixels, p, ((DataBufferByte)outData).getData(), (int)q, end);
+	}
+
+	private void postConvert(short[] inPixels, int p, byte[] outPixels, int q, int end) {
+		// Un-linearize or not?
+		if (!srcIsSRGB || ignoreSRGB) {
+			if (!hasAlpha || srcIsPreAlpha || dontPreAlpha) {
+				// Just convert. (there's no distinction between with and without alpha)
+				postConvertLinear(inPixels, p, outPixels, q, end);
 			} else {
-				if (!hasAlpha) {
-					// Convert, un-linearize
-					postConvertSRGB();
-				} else if (srcIsPreAlpha || dontPreAlpha) {
-					// Convert, un-linearize colors, not alpha
-					postConvertSRGBAlpha();
-				} else {
-					// Convert, un-linearize colors, un-premultiply
-					postConvertSRGBAlphaUnPremultiply();
-				}
+				// Convert, un-premultiply
+				postConvertAlphaUnPremultiply(inPixels, p, outPixels, q, end);
 			}
-			return null;
-		}
-
-		private void postConvertAlphaUnPremultiply() {
-			switch (numChannels) {
-				case 2:
-					postConvertAlphaUnPremultiply2Channels();
-					break;
-				case 4:
-					postConvertAlphaUnPremultiply4Channels();
-					break;
-				default:
-					throw new AssertionError("numChannels: " + numChannels);
+		} else {
+			if (!hasAlpha) {
+				// Convert, un-linearize
+				postConvertSRGB(inPixels, p, outPixels, q, end);
+			} else if (srcIsPreAlpha || dontPreAlpha) {
+				// Convert, un-linearize colors, not alpha
+				postConvertSRGBAlpha(inPixels, p, outPixels, q, end);
+			} else {
+				// Convert, un-linearize colors, un-premultiply
+				postConvertSRGBAlphaUnPremultiply(inPixels, p, outPixels, q, end);
 			}
 		}
+	}
 
-		private void postConvertSRGBAlpha() {
-			switch (numChannels) {
-				case 2:
-					postConvertSRGBAlpha2Channels();
-					break;
-				case 4:
-					postConvertSRGBAlpha4Channels();
-					break;
-				default:
-					throw new AssertionError("numChannels: " + numChannels);
-			}
+	private void postConvertAlphaUnPremultiply(short[] inPixels, int p, byte[] outPixels, int q, int end) {
+		switch (numChannels) {
+			case 2:
+				postConvertAlphaUnPremultiply2Channels(inPixels, p, outPixels, q, end);
+				break;
+			case 4:
+				postConvertAlphaUnPremultiply4Channels(inPixels, p, outPixels, q, end);
+				break;
+			default:
+				throw new AssertionError("numChannels: " + numChannels);
 		}
+	}
 
-		private void postConvertSRGBAlphaUnPremultiply() {
-			switch (numChannels) {
-				case 2:
-					postConvertSRGBAlphaUnPremultiply2Channels();
-					break;
-				case 4:
-					postConvertSRGBAlphaUnPremultiply4Channels();
-					break;
-				default:
-					throw new AssertionError("numChannels: " + numChannels);
-			}
+	private void postConvertSRGBAlpha(short[] inPixels, int p, byte[] outPixels, int q, int end) {
+		switch (numChannels) {
+			case 2:
+				postConvertSRGBAlpha2Channels(inPixels, p, outPixels, q, end);
+				break;
+			case 4:
+				postConvertSRGBAlpha4Channels(inPixels, p, outPixels, q, end);
+				break;
+			default:
+				throw new AssertionError("numChannels: " + numChannels);
 		}
+	}
 
-		private void postConvert() {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+	private void postConvertSRGBAlphaUnPremultiply(short[] inPixels, int p, byte[] outPixels, int q, int end) {
+		switch (numChannels) {
+			case 2:
+				postConvertSRGBAlphaUnPremultiply2Channels(inPixels, p, outPixels, q, end);
+				break;
+			case 4:
+				postConvertSRGBAlphaUnPremultiply4Channels(inPixels, p, outPixels, q, end);
+				break;
+			default:
+				throw new AssertionError("numChannels: " + numChannels);
+		}
+	}
 
-			short[] inPixels  = this.inPixels;
-			byte[]  outPixels = this.outPixels;
-			int     q         = begin;
-			int     p         = begin;
-			int     end       = this.end;
-			while (p < end) {
-				// All channels are linear (alpha channel may be present)
-				short s = inPixels[p++];
-				outPixels[q++] = s <= -16384 ? 0 : s >= 16256 ? -1 : (byte)((s + 16384) >> 7);
-			}
+	private static void postConvertLinear(short[] inPixels, int p, byte[] outPixels, int q, int end) {
+		while (p < end) {
+			// All channels are linear (alpha channel may be present)
+			short s = inPixels[p++];
+			outPixels[q++] = s <= -16384 ? 0 : s >= 16256 ? -1 : (byte)((s + 16384) >> 7);
 		}
+	}
 
-		private void postConvertAlphaUnPremultiply2Channels() {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+	private static void postConvertAlphaUnPremultiply2Channels(short[] inPixels, int p,
+	                                                           byte[] outPixels, int q, int end) {
+		while (p < end) {
+			int a = inPixels[p++];
+			a = a <= -16384 ? 0 : a >= 16256 ? 32640 : a + 16384;
 
-			short[] inPixels  = this.inPixels;
-			byte[]  outPixels = this.outPixels;
-			int     q         = begin;
-			int     p         = begin;
-			int     end       = this.end;
-			while (p < end) {
-				int a = inPixels[p++];
-				a = a <= -16384 ? 0 : a >= 16256 ? 32640 : a + 16384;
+			// Un-premultiply by alpha channel
+			float alphaInv = 32640.0f / a;
+			int   gray     = (int)((inPixels[p++] + 16384) * alphaInv);
 
-				// Un-premultiply by alpha channel
-				float alphaInv = 32640.0f / a;
-				int   gray     = (int)((inPixels[p++] + 16384) * alphaInv);
+			// Alpha channel is always linear
+			outPixels[q++] = (byte)(a >> 7); // Alpha channel
+			outPixels[q++] = gray <= 0 ? 0 : gray >= 32640 ? -1 : (byte)(gray >> 7);
+		}
+	}
 
-				// Alpha channel is always linear
-				outPixels[q++] = (byte)(a >> 7); // Alpha channel
-				outPixels[q++] = gray <= 0 ? 0 : gray >= 32640 ? -1 : (byte)(gray >> 7);
-			}
+	private static void postConvertAlphaUnPremultiply4Channels(short[] inPixels, int p,
+	                                                           byte[] outPixels, int q, int end) {
+		while (p < end) {
+			int a = inPixels[p++];
+			a = a <= -16384 ? 0 : a >= 16256 ? 32640 : a + 16384;
+
+			// Un-premultiply by alpha channel
+			float alphaInv = 32640.0f / a;
+			int   b        = (int)((inPixels[p++] + 16384) * alphaInv);
+			int   g        = (int)((inPixels[p++] + 16384) * alphaInv);
+			int   r        = (int)((inPixels[p++] + 16384) * alphaInv);
+
+			// Alpha channel is always linear
+			outPixels[q++] = (byte)(a >> 7);
+			outPixels[q++] = b <= 0 ? 0 : b >= 32640 ? -1 : (byte)(b >> 7);
+			outPixels[q++] = g <= 0 ? 0 : g >= 32640 ? -1 : (byte)(g >> 7);
+			outPixels[q++] = r <= 0 ? 0 : r >= 32640 ? -1 : (byte)(r >> 7);
 		}
+	}
 
-		private void postConvertAlphaUnPremultiply4Channels() {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+	private static void postConvertSRGB(short[] inPixels, int p, byte[] outPixels, int q, int end) {
+		while (p < end)
+			// All channels are un-linearized (no alpha channel present)
+			outPixels[q++] = SHORT_TO_BYTE_SRGB[inPixels[p++] & 0xFFFF];
+	}
 
-			short[] inPixels  = this.inPixels;
-			byte[]  outPixels = this.outPixels;
-			int     q         = begin;
-			int     p         = begin;
-			int     end       = this.end;
-			while (p < end) {
-				int a = inPixels[p++];
-				a = a <= -16384 ? 0 : a >= 16256 ? 32640 : a + 16384;
+	private static void postConvertSRGBAlpha2Channels(short[] inPixels, int p, byte[] outPixels, int q, int end) {
+		while (p < end) {
+			int a = inPixels[p++];
+			a = a <= -16384 ? 0 : a >= 16256 ? 32640 : a + 16384;
 
-				// Un-premultiply by alpha channel
-				float alphaInv = 32640.0f / a;
-				int   b        = (int)((inPixels[p++] + 16384) * alphaInv);
-				int   g        = (int)((inPixels[p++] + 16384) * alphaInv);
-				int   r        = (int)((inPixels[p++] + 16384) * alphaInv);
+			// Alpha channel is always linear
+			outPixels[q++] = (byte)(a >> 7);
+			// Un-linearize other channels
+			outPixels[q++] = SHORT_TO_BYTE_SRGB[inPixels[p++] & 0xFFFF];
+		}
+	}
 
-				// Alpha channel is always linear
-				outPixels[q++] = (byte)(a >> 7);
-				outPixels[q++] = b <= 0 ? 0 : b >= 32640 ? -1 : (byte)(b >> 7);
-				outPixels[q++] = g <= 0 ? 0 : g >= 32640 ? -1 : (byte)(g >> 7);
-				outPixels[q++] = r <= 0 ? 0 : r >= 32640 ? -1 : (byte)(r >> 7);
-			}
+	private static void postConvertSRGBAlpha4Channels(short[] inPixels, int p, byte[] outPixels, int q, int end) {
+		while (p < end) {
+			int a = inPixels[p++];
+			a = a <= -16384 ? 0 : a >= 16256 ? 32640 : a + 16384;
+
+			// Alpha channel is always linear
+			outPixels[q++] = (byte)(a >> 7);
+			// Un-linearize other channels
+			outPixels[q++] = SHORT_TO_BYTE_SRGB[inPixels[p++] & 0xFFFF];
+			outPixels[q++] = SHORT_TO_BYTE_SRGB[inPixels[p++] & 0xFFFF];
+			outPixels[q++] = SHORT_TO_BYTE_SRGB[inPixels[p++] & 0xFFFF];
 		}
+	}
 
-		private void postConvertSRGB() {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+	private static void postConvertSRGBAlphaUnPremultiply2Channels(short[] inPixels, int p,
+	                                                               byte[] outPixels, int q, int end) {
+		while (p < end) {
+			int a = inPixels[p++];
+			a = a <= -16384 ? 0 : a >= 16256 ? 32640 : a + 16384;
+
+			// Un-premultiply by alpha channel
+			float alphaInv = 32640.0f / a;
+			int   g        = (int)((inPixels[p++] + 16384) * alphaInv);
 
-			short[] inPixels  = this.inPixels;
-			byte[]  outPixels = this.outPixels;
-			int     q         = begin;
-			int     p         = begin;
-			int     end       = this.end;
-			while (p < end)
-				// All channels are un-linearized (no alpha channel present)
-				outPixels[q++] = SHORT_TO_BYTE_SRGB[inPixels[p++] & 0xFFFF];
+			// Alpha channel is always linear
+			outPixels[q++] = (byte)(a >> 7);
+			// Un-linearize other channels
+			outPixels[q++] = g <= 0 ? 0 : g >= 32640 ? -1 : SHORT2_TO_BYTE_SRGB[g];
 		}
+	}
 
-		private void postConvertSRGBAlpha2Channels() {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+	private static void postConvertSRGBAlphaUnPremultiply4Channels(short[] inPixels, int p,
+	                                                               byte[] outPixels, int q, int end) {
+		while (p < end) {
+			int a = inPixels[p++];
+			a = a <= -16384 ? 0 : a >= 16256 ? 32640 : a + 16384;
+
+			// Un-premultiply by alpha channel
+			float alphaInv = 32640.0f / a;
+			int   b        = (int)((inPixels[p++] + 16384) * alphaInv);
+			int   g        = (int)((inPixels[p++] + 16384) * alphaInv);
+			int   r        = (int)((inPixels[p++] + 16384) * alphaInv);
+
+			// Alpha channel is always linear
+			outPixels[q++] = (byte)(a >> 7);
+			// Un-linearize other channels
+			outPixels[q++] = b <= 0 ? 0 : b >= 32640 ? -1 : SHORT2_TO_BYTE_SRGB[b];
+			outPixels[q++] = g <= 0 ? 0 : g >= 32640 ? -1 : SHORT2_TO_BYTE_SRGB[g];
+			outPixels[q++] = r <= 0 ? 0 : r >= 32640 ? -1 : SHORT2_TO_BYTE_SRGB[r];
+		}
+	}
 
-			short[] inPixels  = this.inPixels;
-			byte[]  outPixels = this.outPixels;
-			int     q         = begin;
-			int     p         = begin;
-			int     end       = this.end;
-			while (p < end) {
+	/**
+	 * Converts a range of samples from the internal format to pixels with more channels than are resampled. A left
+	 * out alpha channel becomes opaque, and a gray color is copied to all three colors.
+	 *
+	 * @param p   the index of the first input sample
+	 * @param q   the index of the first output pixel
+	 * @param end the index after the last input sample
+	 */
+	private void postConvertReduced(short[] inPixels, int p, byte[] outPixels, int q, int end) {
+		boolean addAlpha      = hasStoredAlpha() && !hasAlpha;
+		int     numColors     = numChannels - (hasAlpha ? 1 : 0);
+		boolean gray          = numColors == 1 && storedChannels - (hasStoredAlpha() ? 1 : 0) == 3;
+		boolean linear        = !srcIsSRGB || ignoreSRGB;
+		boolean unPremultiply = hasAlpha && !srcIsPreAlpha && !dontPreAlpha;
+
+		for (int i = q * storedChannels; p < end; ) {
+			float alphaInv = 1;
+			if (addAlpha) {
+				outPixels[i++] = -1;
+			} else if (hasAlpha) {
 				int a = inPixels[p++];
 				a = a <= -16384 ? 0 : a >= 16256 ? 32640 : a + 16384;
+				alphaInv = 32640.0f / a;
 
 				// Alpha channel is always linear
-				outPixels[q++] = (byte)(a >> 7);
-				// Un-linearize other channels
-				outPixels[q++] = SHORT_TO_BYTE_SRGB[inPixels[p++] & 0xFFFF];
+				outPixels[i++] = (byte)(a >> 7);
 			}
-		}
 
-		private void postConvertSRGBAlpha4Channels() {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+			for (int c = 0; c < numColors; c++) {
+				byte value;
+				if (unPremultiply) {
+					int v = (int)((inPixels[p++] + 16384) * alphaInv);
+					value = v <= 0 ? 0 : v >= 32640 ? -1 : linear ? (byte)(v >> 7) : SHORT2_TO_BYTE_SRGB[v];
+				} else if (linear) {
+					short v = inPixels[p++];
+					value = v <= -16384 ? 0 : v >= 16256 ? -1 : (byte)((v + 16384) >> 7);
+				} else {
+					value = SHORT_TO_BYTE_SRGB[inPixels[p++] & 0xFFFF];
+				}
 
-			short[] inPixels  = this.inPixels;
-			byte[]  outPixels = this.outPixels;
-			int     q         = begin;
-			int     p         = begin;
-			int     end       = this.end;
-			while (p < end) {
-				int a = inPixels[p++];
-				a = a <= -16384 ? 0 : a >= 16256 ? 32640 : a + 16384;
+				outPixels[i++] = value;
+				if (gray) {
+					outPixels[i++] = value;
+					outPixels[i++] = value;
+				}
+			}
+		}
+	}
 
-				// Alpha channel is always linear
-				outPixels[q++] = (byte)(a >> 7);
-				// Un-linearize other channels
-				outPixels[q++] = SHORT_TO_BYTE_SRGB[inPixels[p++] & 0xFFFF];
-				outPixels[q++] = SHORT_TO_BYTE_SRGB[inPixels[p++] & 0xFFFF];
-				outPixels[q++] = SHORT_TO_BYTE_SRGB[inPixels[p++] & 0xFFFF];
+	/**
+	 * Converts a range of samples from the internal format to packed pixels. Each pixel is made from 3 samples (BGR)
+	 * or 4 samples (ABGR), in the same order as the byte images.
+	 *
+	 * @param p   the index of the first input sample
+	 * @param q   the index of the first output pixel
+	 * @param end the index after the last input sample
+	 */
+	private void postConvert(short[] inPixels, int p, int[] outPixels, int q, int end) {
+		if (!srcIsSRGB || ignoreSRGB) {
+			if (!hasAlpha) {
+				// Just convert.
+				postConvertLinear3Channels(inPixels, p, outPixels, q, end);
+			} else if (srcIsPreAlpha || dontPreAlpha) {
+				// Just convert.
+				postConvertLinear4Channels(inPixels, p, outPixels, q, end);
+			} else {
+				// Convert, un-premultiply
+				postConvertAlphaUnPremultiply4Channels(inPixels, p, outPixels, q, end);
+			}
+		} else {
+			if (!hasAlpha) {
+				// Convert, un-linearize
+				postConvertSRGB3Channels(inPixels, p, outPixels, q, end);
+			} else if (srcIsPreAlpha || dontPreAlpha) {
+				// Convert, un-linearize colors, not alpha
+				postConvertSRGBAlpha4Channels(inPixels, p, outPixels, q, end);
+			} else {
+				// Convert, un-linearize colors, un-premultiply
+				postConvertSRGBAlphaUnPremultiply4Channels(inPixels, p, outPixels, q, end);
 			}
 		}
+	}
 
-		private void postConvertSRGBAlphaUnPremultiply2Channels() {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+	private static void postConvertLinear3Channels(short[] inPixels, int p, int[] outPixels, int q, int end) {
+		while (p < end) {
+			// All channels are linear
+			short b = inPixels[p++];
+			short g = inPixels[p++];
+			short r = inPixels[p++];
+			outPixels[q++] = (r <= -16384 ? 0 : r >= 16256 ? 255 : (r + 16384) >> 7) << 16 |
+			                 (g <= -16384 ? 0 : g >= 16256 ? 255 : (g + 16384) >> 7) << 8 |
+			                 (b <= -16384 ? 0 : b >= 16256 ? 255 : (b + 16384) >> 7);
+		}
+	}
 
-			short[] inPixels  = this.inPixels;
-			byte[]  outPixels = this.outPixels;
-			int     q         = begin;
-			int     p         = begin;
-			int     end       = this.end;
-			while (p < end) {
-				int a = inPixels[p++];
-				a = a <= -16384 ? 0 : a >= 16256 ? 32640 : a + 16384;
+	private static void postConvertLinear4Channels(short[] inPixels, int p, int[] outPixels, int q, int end) {
+		while (p < end) {
+			// All channels are linear
+			short a = inPixels[p++];
+			short b = inPixels[p++];
+			short g = inPixels[p++];
+			short r = inPixels[p++];
+			outPixels[q++] = (a <= -16384 ? 0 : a >= 16256 ? 255 : (a + 16384) >> 7) << 24 |
+			                 (r <= -16384 ? 0 : r >= 16256 ? 255 : (r + 16384) >> 7) << 16 |
+			                 (g <= -16384 ? 0 : g >= 16256 ? 255 : (g + 16384) >> 7) << 8 |
+			                 (b <= -16384 ? 0 : b >= 16256 ? 255 : (b + 16384) >> 7);
+		}
+	}
 
-				// Un-premultiply by alpha channel
-				float alphaInv = 32640.0f / a;
-				int   g        = (int)((inPixels[p++] + 16384) * alphaInv);
+	private static void postConvertAlphaUnPremultiply4Channels(short[] inPixels, int p,
+	                                                           int[] outPixels, int q, int end) {
+		while (p < end) {
+			int a = inPixels[p++];
+			a = a <= -16384 ? 0 : a >= 16256 ? 32640 : a + 16384;
+
+			// Un-premultiply by alpha channel
+			float alphaInv = 32640.0f / a;
+			int   b        = (int)((inPixels[p++] + 16384) * alphaInv);
+			int   g        = (int)((inPixels[p++] + 16384) * alphaInv);
+			int   r        = (int)((inPixels[p++] + 16384) * alphaInv);
+
+			// Alpha channel is always linear
+			outPixels[q++] = (a >> 7) << 24 |
+			                 (r <= 0 ? 0 : r >= 32640 ? 255 : r >> 7) << 16 |
+			                 (g <= 0 ? 0 : g >= 32640 ? 255 : g >> 7) << 8 |
+			                 (b <= 0 ? 0 : b >= 32640 ? 255 : b >> 7);
+		}
+	}
 
-				// Alpha channel is always linear
-				outPixels[q++] = (byte)(a >> 7);
-				// Un-linearize other channels
-				outPixels[q++] = g <= 0 ? 0 : g >= 32640 ? -1 : SHORT2_TO_BYTE_SRGB[g];
-			}
+	private static void postConvertSRGB3Channels(short[] inPixels, int p, int[] outPixels, int q, int end) {
+		while (p < end) {
+			// All channels are un-linearized
+			int b = SHORT_TO_BYTE_SRGB[inPixels[p++] & 0xFFFF] & 0xFF;
+			int g = SHORT_TO_BYTE_SRGB[inPixels[p++] & 0xFFFF] & 0xFF;
+			int r = SHORT_TO_BYTE_SRGB[inPixels[p++] & 0xFFFF] & 0xFF;
+			outPixels[q++] = r << 16 | g << 8 | b;
 		}
+	}
 
-		private void postConvertSRGBAlphaUnPremultiply4Channels() {
-			if (Logger.getGlobal().isLoggable(Level.FINEST))
-				Logger.getGlobal().finest(begin + ".." + end);
+	private static void postConvertSRGBAlpha4Channels(short[] inPixels, int p, int[] outPixels, int q, int end) {
+		while (p < end) {
+			int a = inPixels[p++];
+			a = a <= -16384 ? 0 : a >= 16256 ? 32640 : a + 16384;
 
-			short[] inPixels  = this.inPixels;
-			byte[]  outPixels = this.outPixels;
-			int     q         = begin;
-			int     p         = begin;
-			int     end       = this.end;
-			while (p < end) {
-				int a = inPixels[p++];
-				a = a <= -16384 ? 0 : a >= 16256 ? 32640 : a + 16384;
+			// Un-linearize other channels
+			int b = SHORT_TO_BYTE_SRGB[inPixels[p++] & 0xFFFF] & 0xFF;
+			int g = SHORT_TO_BYTE_SRGB[inPixels[p++] & 0xFFFF] & 0xFF;
+			int r = SHORT_TO_BYTE_SRGB[inPixels[p++] & 0xFFFF] & 0xFF;
 
-				// Un-premultiply by alpha channel
-				float alphaInv = 32640.0f / a;
-				int   b        = (int)((inPixels[p++] + 16384) * alphaInv);
-				int   g        = (int)((inPixels[p++] + 16384) * alphaInv);
-				int   r        = (int)((inPixels[p++] + 16384) * alphaInv);
+			// Alpha channel is always linear
+			outPixels[q++] = (a >> 7) << 24 | r << 16 | g << 8 | b;
+		}
+	}
 
-				// Alpha channel is always linear
-				outPixels[q++] = (byte)(a >> 7);
-				// Un-linearize other channels
-				outPixels[q++] = b <= 0 ? 0 : b >= 32640 ? -1 : SHORT2_TO_BYTE_SRGB[b];
-				outPixels[q++] = g <= 0 ? 0 : g >= 32640 ? -1 : SHORT2_TO_BYTE_SRGB[g];
-				outPixels[q++] = r <= 0 ? 0 : r >= 32640 ? -1 : SHORT2_TO_BYTE_SRGB[r];
-			}
+	private static void postConvertSRGBAlphaUnPremultiply4Channels(short[] inPixels, int p,
+	                                                               int[] outPixels, int q, int end) {
+		while (p < end) {
+			int a = inPixels[p++];
+			a = a <= -16384 ? 0 : a >= 16256 ? 32640 : a + 16384;
+
+			// Un-premultiply by alpha channel
+			float alphaInv = 32640.0f / a;
+			int   b        = (int)((inPixels[p++] + 16384) * alphaInv);
+			int   g        = (int)((inPixels[p++] + 16384) * alphaInv);
+			int   r        = (int)((inPixels[p++] + 16384) * alphaInv);
+
+			// Un-linearize other channels
+			b = b <= 0 ? 0 : b >= 32640 ? 255 : SHORT2_TO_BYTE_SRGB[b] & 0xFF;
+			g = g <= 0 ? 0 : g >= 32640 ? 255 : SHORT2_TO_BYTE_SRGB[g] & 0xFF;
+			r = r <= 0 ? 0 : r >= 32640 ? 255 : SHORT2_TO_BYTE_SRGB[r] & 0xFF;
+
+			// Alpha channel is always linear
+			outPixels[q++] = (a >> 7) << 24 | r << 16 | g << 8 | b;
 		}
 	}
 }
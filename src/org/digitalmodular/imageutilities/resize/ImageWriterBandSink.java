@@ -0,0 +1,78 @@
+/*
+ * This file is part of ImageUtilities.
+ *
+ * Copyleft 2016 Mark Jeronimus. All Rights Reversed.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ImageUtilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.digitalmodular.imageutilities.resize;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes bands to an {@link ImageWriter} that supports writing an empty image and replacing its pixels afterwards
+ * (like the TIFF writer). The writer must already have its output set. It's not disposed afterwards.
+ *
+ * @author Mark Jeronimus
+ */
+// Created 2026-10-16
+public class ImageWriterBandSink implements ImageBandSink {
+	private final ImageWriter writer;
+
+	public ImageWriterBandSink(ImageWriter writer) {
+		this.writer = requireNonNull(writer, "writer can't be null");
+	}
+
+	@Override
+	public void begin(int width, int height, ImageTypeSpecifier type) throws IOException {
+		if (!writer.canWriteEmpty())
+			throw new IOException("The writer can't write empty images: " + writer);
+
+		writer.prepareWriteEmpty(null, type, width, height, null, null, null);
+
+		if (!writer.canReplacePixels(0))
+			throw new IOException("The writer can't replace pixels: " + writer);
+	}
+
+	@Override
+	public void writeBand(BufferedImage band, int y) throws IOException {
+		writer.prepareReplacePixels(0, new Rectangle(0, y, band.getWidth(), band.getHeight()));
+
+		ImageWriteParam param = writer.getDefaultWriteParam();
+		param.setDestinationOffset(new Point(0, y));
+		writer.replacePixels(band, param);
+
+		writer.endReplacePixels();
+	}
+
+	@Override
+	public void end() throws IOException {
+		writer.endWriteEmpty();
+	}
+}
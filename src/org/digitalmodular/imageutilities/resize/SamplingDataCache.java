@@ -0,0 +1,202 @@
+/*
+ * This file is part of ImageUtilities.
+ *
+ * Copyleft 2016 Mark Jeronimus. All Rights Reversed.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ImageUtilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.digitalmodular.imageutilities.resize;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import static java.util.Objects.requireNonNull;
+
+import org.digitalmodular.imageutilities.resize.filter.ResamplingCurve;
+import static org.digitalmodular.imageutilities.resize.SamplingDataCalculator.SamplingData;
+
+/**
+ * A cache of {@link SamplingData}, to prevent recalculating the weights when many images of the same size are
+ * resized to the same size. Calculating the weights can take a significant part of the time of a resize,
+ * especially with resampling curves that use trigonometric functions, like Lanczos.
+ * <p>
+ * The cached data is shared between resizes, so it must not be modified.
+ * <p>
+ * The number of entries is capped. When a new entry doesn't fit, the least recently used entry is evicted.
+ * <p>
+ * This class is thread-safe. Entries are calculated outside of the lock, so when two threads ask for the same missing
+ * entry at the same time, it may be calculated twice.
+ *
+ * @author Mark Jeronimus
+ */
+// Created 2026-10-16
+public final class SamplingDataCache {
+	private static final SamplingDataCache SHARED = new SamplingDataCache(64);
+
+	private final Map<Key, SamplingData> entries = new LinkedHashMap<Key, SamplingData>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, SamplingData> eldest) {
+			return size() > maxEntries;
+		}
+	};
+
+	private int maxEntries;
+
+	private long numHits   = 0;
+	private long numMisses = 0;
+
+	/**
+	 * @param maxEntries the maximum number of cached sampling data
+	 */
+	public SamplingDataCache(int maxEntries) {
+		setMaxEntries(maxEntries);
+	}
+
+	/**
+	 * Returns the cache that is shared by all resamplers that aren't given another cache. It retains up to 64
+	 * entries.
+	 */
+	public static SamplingDataCache getShared() { return SHARED; }
+
+	public synchronized int getMaxEntries() { return maxEntries; }
+
+	/**
+	 * Sets the maximum number of cached sampling data. When lowered, the least recently used entries are evicted
+	 * immediately.
+	 */
+	public synchronized void setMaxEntries(int maxEntries) {
+		if (maxEntries < 0)
+			throw new IllegalArgumentException("maxEntries can't be negative: " + maxEntries);
+
+		this.maxEntries = maxEntries;
+
+		while (entries.size() > maxEntries)
+			entries.remove(entries.keySet().iterator().next());
+	}
+
+	public synchronized int size() { return entries.size(); }
+
+	public synchronized long getNumHits() { return numHits; }
+
+	public synchronized long getNumMisses() { return numMisses; }
+
+	/**
+	 * Evicts all entries. The statistics are not reset.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Returns the cached sampling data for these parameters, or calculates and caches it when it's missing.
+	 *
+	 * @see SamplingDataCalculator#createSubSampling(ResamplingCurve, int, int, double, double, int)
+	 */
+	public SamplingData get(ResamplingCurve filter, int srcSize, int dstSize,
+	                        double scale, double offset, int pixelStride) {
+		Key key = new Key(requireNonNull(filter, "filter can't be null"),
+		                  srcSize, dstSize, scale, offset, pixelStride);
+
+		SamplingData samplingData = lookup(key);
+		if (samplingData != null)
+			return samplingData;
+
+		// Calculate outside of the lock
+		samplingData = SamplingDataCalculator.createSubSampling(filter, srcSize, dstSize, scale, offset, pixelStride);
+
+		synchronized (this) {
+			if (maxEntries > 0)
+				entries.put(key, samplingData);
+		}
+
+		return samplingData;
+	}
+
+	private synchronized SamplingData lookup(Key key) {
+		SamplingData samplingData = entries.get(key);
+
+		if (samplingData != null)
+			numHits++;
+		else
+			numMisses++;
+
+		return samplingData;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return getClass().getSimpleName() + "[size=" + entries.size() + ", maxEntries=" + maxEntries +
+		       ", hits=" + numHits + ", misses=" + numMisses + ']';
+	}
+
+	private static final class Key {
+		private final ResamplingCurve filter;
+		private final int             srcSize;
+		private final int             dstSize;
+		private final double          scale;
+		private final double          offset;
+		private final int             pixelStride;
+
+		private Key(ResamplingCurve filter, int srcSize, int dstSize, double scale, double offset, int pixelStride) {
+			this.filter = filter;
+			this.srcSize = srcSize;
+			this.dstSize = dstSize;
+			this.scale = scale;
+			this.offset = offset;
+			this.pixelStride = pixelStride;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+
+			if (!(o instanceof Key))
+				return false;
+
+			Key other = (Key)o;
+			return srcSize == other.srcSize &&
+			       dstSize == other.dstSize &&
+			       Double.compare(scale, other.scale) == 0 &&
+			       Double.compare(offset, other.offset) == 0 &&
+			       pixelStride == other.pixelStride &&
+			       filter.equals(other.filter);
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = 0x4C1DF00D;
+			hash *= 0x01000193;
+			hash ^= filter.hashCode();
+			hash *= 0x01000193;
+			hash ^= srcSize;
+			hash *= 0x01000193;
+			hash ^= dstSize;
+			hash *= 0x01000193;
+			hash ^= Double.hashCode(scale);
+			hash *= 0x01000193;
+			hash ^= Double.hashCode(offset);
+			hash *= 0x01000193;
+			hash ^= pixelStride;
+			return hash;
+		}
+	}
+}
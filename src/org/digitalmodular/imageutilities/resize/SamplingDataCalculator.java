@@ -1,35 +1,63 @@
 package org.digitalmodular.imageutilities.resize;
 
+import java.util.Arrays;
+
+import org.digitalmodular.imageutilities.resize.filter.BoxResamplingCurve;
 import org.digitalmodular.imageutilities.resize.filter.ResamplingCurve;
 
 /**
  * @author Mark Jeronimus
  */
 // Created 2017-07-18 Extracted from AbstractImageResampler
+// Changed 2026-10-16 Added fixed-point weights
+// Changed 2026-10-16 Compact layout with one start index per output sample
+// Changed 2026-10-16 Polyphase weights for rational scale factors
+// Changed 2026-10-16 Exact area coverage when shrinking with the box curve
 public enum SamplingDataCalculator {
 	;
 
+	/** The number of fractional bits of the fixed-point weights */
+	public static final int WEIGHT_PRECISION = 14;
+
+	/** The maximum number of weights in one period of a polyphase table (so it fits comfortably in L1 cache) */
+	private static final int    MAX_PERIOD_WEIGHTS = 4096;
+	/** How close {@code period / scale} must be to an integer to be considered rational */
+	private static final double PERIOD_EPSILON     = 1.0e-9;
+
 	/**
 	 * SamplingData describes how a single row or column of an image can be resized. It specifies for each
-	 * output sample which input samples contribute (using relative indices), and how much (using normalized
-	 * weights). Each output sample always depends on a fixed number of input samples, specified by
-	 * {@link #numSamples}. Although in practice the input sample indices are always contiguous, and the middle
-	 * one or one of the two middle ones equal the output sample index, these are not enforced.
+	 * output sample which input samples contribute, and how much (using normalized weights). Each output sample
+	 * always depends on a fixed number of contiguous input samples, specified by {@link #numSamples}, so only the
+	 * index of the first one is stored. The others follow at intervals of {@link #pixelStride}.
+	 * <p>
+	 * Input samples beyond the edge of the image are clamped to the edge. Their weights are added to the weight of
+	 * the edge sample, and the first input sample is moved inward, so the input samples stay contiguous and inside the
+	 * image. When the image is smaller than the resampling curve, the number of samples is reduced to the size of the
+	 * image.
+	 * <p>
+	 * Output samples with the same weights share a single row of weights. When the scale factor is a rational number
+	 * with a small denominator (like 1/2, 2/3 or 3/4), the weights repeat with a short period, and only one period
+	 * (plus the output samples near the edges) is stored.
+	 * <p>
+	 * The data can be shared between resizes, so it must not be modified.
 	 */
 	@SuppressWarnings("ReturnOfCollectionOrArrayField")
 	public static final class SamplingData {
-		private final int       numSamples;
-		private final int[]     indicesX;
-		private final int[][]   indicesY;
-		private final float[]   weightsX;
-		private final float[][] weightsY;
+		private final int     numSamples;
+		private final int     pixelStride;
+		private final int[]   starts;
+		private final int[]   weightOffsets;
+		private final float[] weights;
+
+		/** Calculated when first needed */
+		private volatile int[] fixedWeights = null;
 
-		private SamplingData(int numSamples, int[] indicesX, int[][] indicesY, float[] weightsX, float[][] weightsY) {
+		private SamplingData(int numSamples, int pixelStride, int[] starts, int[] weightOffsets, float[] weights) {
 			this.numSamples = numSamples;
-			this.indicesX = indicesX;
-			this.indicesY = indicesY;
-			this.weightsX = weightsX;
-			this.weightsY = weightsY;
+			this.pixelStride = pixelStride;
+			this.starts = starts;
+			this.weightOffsets = weightOffsets;
+			this.weights = weights;
 		}
 
 		/**
@@ -38,38 +66,78 @@ public enum SamplingDataCalculator {
 		public int getNumSamples() { return numSamples; }
 
 		/**
-		 * The input sample indices. A linear array of {@link #numSamples} indices for each output sample.
+		 * The distance between the indices of consecutive input samples.
+		 */
+		public int getPixelStride() { return pixelStride; }
+
+		/**
+		 * The index of the first input sample of each output sample. The others follow at intervals of
+		 * {@link #pixelStride}.
 		 */
-		public int[] getIndicesX() { return indicesX; }
+		public int[] getStarts() { return starts; }
 
 		/**
-		 * The input sample indices. A linear array of {@link #numSamples} indices for each output sample.
+		 * The index in {@link #getWeights()} of the first weight of each output sample.
 		 */
-		public int[][] getIndicesY() { return indicesY; }
+		public int[] getWeightOffsets() { return weightOffsets; }
 
 		/**
-		 * The input sample weights. A linear array of {@link #numSamples} weights for each output sample.
+		 * The input sample weights. A linear array of rows of {@link #numSamples} weights, where each output sample
+		 * uses the row at its {@link #getWeightOffsets() weight offset}.
 		 */
-		public float[] getWeightsX() { return weightsX; }
+		public float[] getWeights() { return weights; }
+
+		/**
+		 * The input sample weights in fixed-point with {@link #WEIGHT_PRECISION} fractional bits. The weights of each
+		 * output sample sum to exactly {@code 1 << WEIGHT_PRECISION}. Laid out the same as
+		 * {@link #getWeights()}.
+		 * <p>
+		 * These are calculated the first time they're needed.
+		 */
+		public int[] getFixedWeights() {
+			int[] fixedWeights = this.fixedWeights;
+			if (fixedWeights == null) {
+				// Harmless race: all threads calculate the same weights
+				fixedWeights = quantizeWeights(weights, numSamples, WEIGHT_PRECISION);
+				this.fixedWeights = fixedWeights;
+			}
+
+			return fixedWeights;
+		}
 
 		/**
-		 * The input sample weights. A linear array of {@link #numSamples} weights for each output sample.
+		 * Copies the input sample indices of one output sample.
+		 *
+		 * @param i       the index of the output sample
+		 * @param indices receives {@link #numSamples} indices
 		 */
-		public float[][] getWeightsY() { return weightsY; }
+		public void getIndices(int i, int[] indices) {
+			int index = starts[i];
+			for (int j = 0; j < numSamples; j++) {
+				indices[j] = index;
+				index += pixelStride;
+			}
+		}
 	}
 
 	public static SamplingData createSubSampling(ResamplingCurve filter,
 	                                             int srcSize, int dstSize,
 	                                             double scale, double offset,
 	                                             int pixelStride) {
-		int numSamples = calculateNumSamples(filter, scale);
+		boolean area         = isAreaAveraging(filter, scale);
+		int     curveSamples = calculateNumSamples(filter, scale);
+		int     numSamples   = Math.min(curveSamples, srcSize);
+		int     period       = calculatePeriod(scale, dstSize, numSamples);
+		int     srcPeriod    = (int)Math.rint(period / scale);
 
-		// 'X' arrays have an optimized structure for the horizontal resamplers, Y arrays for the vertical resamplers.
+		int[]   starts        = new int[dstSize];
+		int[]   weightOffsets = new int[dstSize];
+		float[] weights       = new float[(period == 0 ? dstSize : Math.min(dstSize, period * 2)) * numSamples];
+		int     numWeights    = 0;
 
-		int[]     indicesX = new int[dstSize * numSamples];
-		int[][]   indicesY = new int[dstSize][numSamples];
-		float[]   weightsX = new float[dstSize * numSamples];
-		float[][] weightsY = new float[dstSize][numSamples];
+		// For each phase, the first output sample with that phase that doesn't touch the edges, or -1 if none yet.
+		int[] phaseFirsts = new int[period];
+		Arrays.fill(phaseFirsts, -1);
 
 		// Translation between source and destination image CENTERS, in source scalespace
 		// TODO elaborate this formula
@@ -83,43 +151,121 @@ public enum SamplingDataCalculator {
 
 		double samplingRadius = getSamplingRadius(filter, scale);
 
-		int k = 0;
 		for (int i = 0; i < dstSize; i++) {
-			int    subIndex = k;
-			double center   = i / scale + centerOffset;
+			int    phase  = period == 0 ? 0 : i % period;
+			double center = i / scale + centerOffset;
+
+			// With area-averaging, also the input samples that are partially covered
+			int left  = area ? (int)Math.floor(center - samplingRadius + 0.5) : (int)Math.ceil(center - samplingRadius);
+			int right = left + curveSamples;
+
+			if (period > 0 && phaseFirsts[phase] >= 0 && right <= srcSize) {
+				// Same weights as an earlier output sample, a whole number of periods further in the input, unless
+				// rounding breaks a tie differently for this one
+				int first = phaseFirsts[phase];
+				if (left == starts[first] / pixelStride + (i - first) / period * srcPeriod) {
+					starts[i] = left * pixelStride;
+					weightOffsets[i] = weightOffsets[first];
+					continue;
+				}
+			}
+
+			// Move the window inside the image. Clamped samples then always fall inside the window.
+			int start = Math.max(0, Math.min(left, srcSize - numSamples));
+			starts[i] = start * pixelStride;
 
-			int left  = (int)Math.ceil(center - samplingRadius);
-			int right = left + numSamples;
+			if (numWeights == weights.length)
+				weights = Arrays.copyOf(weights, Math.min(weights.length * 2, dstSize * numSamples));
+
+			int subIndex = numWeights;
+			weightOffsets[i] = subIndex;
+			numWeights += numSamples;
 
 			for (int j = left; j < right; j++) {
 				float weight;
-				if (scale < 1)
+				if (area)
+					weight = (float)Math.max(0, Math.min(j + 0.5, center + samplingRadius) -
+					                            Math.max(j - 0.5, center - samplingRadius));
+				else if (scale < 1)
 					weight = (float)filter.apply((j - center) * scale);
 				else
 					weight = (float)filter.apply(j - center);
 
 				int n = j < 0 ? 0 : j >= srcSize ? srcSize - 1 : j;
 
-				indicesX[k] = n * pixelStride;
-				indicesY[i][j - left] = n * pixelStride;
-				weightsX[k] = weight;
-				weightsY[i][j - left] = weight;
-				k++;
+				weights[subIndex + n - start] += weight;
 			}
 
 			// Normalize weights
 			double sum = 0;
 			for (int j = 0; j < numSamples; j++)
-				sum += weightsY[i][j];
+				sum += weights[subIndex + j];
 
 			if (sum != 0) {
-				for (int j = 0; j < numSamples; j++) {
-					weightsX[subIndex + j] /= sum;
-					weightsY[i][j] /= sum;
-				}
+				for (int j = 0; j < numSamples; j++)
+					weights[subIndex + j] /= sum;
 			}
+
+			// Only weights that weren't clamped can be repeated
+			if (period > 0 && phaseFirsts[phase] < 0 && left >= 0 && right <= srcSize)
+				phaseFirsts[phase] = i;
 		}
-		return new SamplingData(numSamples, indicesX, indicesY, weightsX, weightsY);
+
+		if (numWeights < weights.length)
+			weights = Arrays.copyOf(weights, numWeights);
+
+		return new SamplingData(numSamples, pixelStride, starts, weightOffsets, weights);
+	}
+
+	/**
+	 * Finds the smallest number of output samples after which the weights repeat, which is the case when the scale
+	 * factor is a rational number. Only periods that are shorter than half the output, and of which the weights fit
+	 * in {@link #MAX_PERIOD_WEIGHTS}, are considered.
+	 *
+	 * @return the period, or 0 if the weights don't repeat (soon enough)
+	 */
+	private static int calculatePeriod(double scale, int dstSize, int numSamples) {
+		int maxPeriod = Math.min(dstSize / 2, MAX_PERIOD_WEIGHTS / numSamples);
+
+		for (int period = 1; period <= maxPeriod; period++) {
+			double srcPeriod = period / scale;
+			if (Math.abs(srcPeriod - Math.rint(srcPeriod)) < srcPeriod * PERIOD_EPSILON)
+				return period;
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Converts normalized weights to fixed-point integers with {@code precision} fractional bits. The weights of each
+	 * output sample are rounded individually, and the accumulated rounding error is added to the largest weight
+	 * (the center tap), so that they sum to exactly {@code 1 << precision}.
+	 *
+	 * @param weights    a linear array of rows of {@code numSamples} weights
+	 * @param numSamples the number of input samples per output sample
+	 * @param precision  the number of fractional bits
+	 */
+	public static int[] quantizeWeights(float[] weights, int numSamples, int precision) {
+		int   one       = 1 << precision;
+		int[] quantized = new int[weights.length];
+
+		for (int i = 0; i < weights.length; i += numSamples) {
+			int sum    = 0;
+			int center = i;
+			for (int j = i; j < i + numSamples; j++) {
+				quantized[j] = Math.round(weights[j] * one);
+				sum += quantized[j];
+
+				if (Math.abs(weights[j]) > Math.abs(weights[center]))
+					center = j;
+			}
+
+			// Weights that sum to zero can't be normalized
+			if (sum != 0)
+				quantized[center] += one - sum;
+		}
+
+		return quantized;
 	}
 
 	/**
@@ -130,9 +276,25 @@ public enum SamplingDataCalculator {
 	public static int calculateNumSamples(ResamplingCurve filter, double scale) {
 		double samplingRadius = getSamplingRadius(filter, scale);
 
+		// Partially covered input samples at both ends
+		if (isAreaAveraging(filter, scale))
+			return (int)Math.ceil(samplingRadius * 2) + 1;
+
 		return (int)Math.ceil(samplingRadius * 2);
 	}
 
+	/**
+	 * Checks if the weights are the exact coverage of the input samples by the output samples, instead of samples of
+	 * the resampling curve. This is the case when shrinking with the {@link BoxResamplingCurve}, which then averages
+	 * areas, including the fractions of input samples at both ends.
+	 *
+	 * @param scale the scaling factor, {@code < 1} means shrinking.
+	 * @see AreaAveragingKernel
+	 */
+	public static boolean isAreaAveraging(ResamplingCurve filter, double scale) {
+		return filter instanceof BoxResamplingCurve && scale < 1;
+	}
+
 	/**
 	 * Calculates the sampling radius of the resampling curve, in source scalespace.
 	 *
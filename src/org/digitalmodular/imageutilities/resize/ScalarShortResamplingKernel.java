@@ -0,0 +1,453 @@
+/*
+ * This file is part of ImageUtilities.
+ *
+ * Copyleft 2016 Mark Jeronimus. All Rights Reversed.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ImageUtilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.digitalmodular.imageutilities.resize;
+
+import static org.digitalmodular.imageutilities.resize.SamplingDataCalculator.WEIGHT_PRECISION;
+
+/**
+ * Plain Java implementation of the resampling loops, with separate loops for each number of channels, and for
+ * floating-point and fixed-point weights.
+ *
+ * @author Mark Jeronimus
+ */
+// Created 2015-08-14
+// Changed 2026-10-16 Extracted from ImageResamplerShort
+// Changed 2026-10-16 Added fixed-point loops
+// Changed 2026-10-16 Horizontal loops take the start index of each output pixel
+// Changed 2026-10-16 Horizontal loops take the weight offset of each output pixel
+class ScalarShortResamplingKernel implements ShortResamplingKernel {
+	private static final int ROUNDING = 1 << (WEIGHT_PRECISION - 1);
+
+	@Override
+	public void resampleHorizontally(short[] in, int inOffset, short[] out, int outOffset,
+	                                 int dstWidth, int numChannels,
+	                                 int numSamples, int[] starts, int[] weightOffsets, float[] weights) {
+		switch (numChannels) {
+			case 1:
+				horizontalResample1Channel(in, inOffset, out, outOffset, dstWidth,
+				                           numSamples, starts, weightOffsets, weights);
+				break;
+			case 2:
+				horizontalResample2Channels(in, inOffset, out, outOffset, dstWidth,
+				                            numSamples, starts, weightOffsets, weights);
+				break;
+			case 3:
+				horizontalResample3Channels(in, inOffset, out, outOffset, dstWidth,
+				                            numSamples, starts, weightOffsets, weights);
+				break;
+			case 4:
+				horizontalResample4Channels(in, inOffset, out, outOffset, dstWidth,
+				                            numSamples, starts, weightOffsets, weights);
+				break;
+			default:
+				throw new AssertionError("numChannels: " + numChannels);
+		}
+	}
+
+	@Override
+	public void resampleVertically(short[] in, short[] out, int outOffset,
+	                               int width, int numChannels,
+	                               int numSamples, int[] indices, float[] weights) {
+		switch (numChannels) {
+			case 1:
+				verticalResample1Channel(in, out, outOffset, width, numSamples, indices, weights);
+				break;
+			case 2:
+				verticalResample2Channels(in, out, outOffset, width, numSamples, indices, weights);
+				break;
+			case 3:
+				verticalResample3Channels(in, out, outOffset, width, numSamples, indices, weights);
+				break;
+			case 4:
+				verticalResample4Channels(in, out, outOffset, width, numSamples, indices, weights);
+				break;
+			default:
+				throw new AssertionError("numChannels: " + numChannels);
+		}
+	}
+
+	private static void horizontalResample1Channel(short[] in, int offset, short[] out, int u, int dstWidth,
+	                                               int numSamples, int[] starts, int[] weightOffsets, float[] weights) {
+		for (int x = 0; x < dstWidth; x++) {
+			float sample0  = 0;
+			int   arrPixel = offset + starts[x];
+			int   index    = weightOffsets[x];
+			for (int i = numSamples; i > 0; i--) {
+				sample0 += in[arrPixel] * weights[index];
+				arrPixel++;
+				index++;
+			}
+			out[u++] = (short)sample0;
+		}
+	}
+
+	private static void horizontalResample2Channels(short[] in, int offset, short[] out, int u, int dstWidth,
+	                                                int numSamples, int[] starts, int[] weightOffsets,
+	                                                float[] weights) {
+		for (int x = 0; x < dstWidth; x++) {
+			float sample0  = 0;
+			float sample1  = 0;
+			int   arrPixel = offset + starts[x];
+			int   index    = weightOffsets[x];
+			for (int i = numSamples; i > 0; i--) {
+				float weight = weights[index];
+				index++;
+
+				sample0 += in[arrPixel] * weight;
+				sample1 += in[arrPixel + 1] * weight;
+				arrPixel += 2;
+			}
+			out[u++] = (short)sample0;
+			out[u++] = (short)sample1;
+		}
+	}
+
+	private static void horizontalResample3Channels(short[] in, int offset, short[] out, int u, int dstWidth,
+	                                                int numSamples, int[] starts, int[] weightOffsets,
+	                                                float[] weights) {
+		for (int x = 0; x < dstWidth; x++) {
+			float sample0  = 0;
+			float sample1  = 0;
+			float sample2  = 0;
+			int   arrPixel = offset + starts[x];
+			int   index    = weightOffsets[x];
+			for (int i = numSamples; i > 0; i--) {
+				float weight = weights[index];
+				index++;
+
+				sample0 += in[arrPixel] * weight;
+				sample1 += in[arrPixel + 1] * weight;
+				sample2 += in[arrPixel + 2] * weight;
+				arrPixel += 3;
+			}
+			out[u++] = (short)sample0;
+			out[u++] = (short)sample1;
+			out[u++] = (short)sample2;
+		}
+	}
+
+	private static void horizontalResample4Channels(short[] in, int offset, short[] out, int u, int dstWidth,
+	                                                int numSamples, int[] starts, int[] weightOffsets,
+	                                                float[] weights) {
+		for (int x = 0; x < dstWidth; x++) {
+			float sample0  = 0;
+			float sample1  = 0;
+			float sample2  = 0;
+			float sample3  = 0;
+			int   arrPixel = offset + starts[x];
+			int   index    = weightOffsets[x];
+			for (int i = numSamples; i > 0; i--) {
+				float weight = weights[index];
+				index++;
+
+				sample0 += in[arrPixel] * weight;
+				sample1 += in[arrPixel + 1] * weight;
+				sample2 += in[arrPixel + 2] * weight;
+				sample3 += in[arrPixel + 3] * weight;
+				arrPixel += 4;
+			}
+			out[u++] = (short)sample0;
+			out[u++] = (short)sample1;
+			out[u++] = (short)sample2;
+			out[u++] = (short)sample3;
+		}
+	}
+
+	private static void verticalResample1Channel(short[] in, short[] out, int u, int width,
+	                                             int numSamples, int[] indices, float[] weights) {
+		for (int x = 0; x < width; x++) {
+			float sample0 = 0;
+			for (int i = 0; i < numSamples; i++) {
+				sample0 += in[x + indices[i]] * weights[i];
+			}
+			out[u++] = (short)sample0;
+		}
+	}
+
+	private static void verticalResample2Channels(short[] in, short[] out, int u, int width,
+	                                              int numSamples, int[] indices, float[] weights) {
+		for (int x = 0; x < width; x++) {
+			float sample0 = 0;
+			float sample1 = 0;
+			for (int i = 0; i < numSamples; i++) {
+				int   arrPixel = x * 2 + indices[i];
+				float weight   = weights[i];
+
+				sample0 += in[arrPixel] * weight;
+				sample1 += in[arrPixel + 1] * weight;
+			}
+			out[u++] = (short)sample0;
+			out[u++] = (short)sample1;
+		}
+	}
+
+	private static void verticalResample3Channels(short[] in, short[] out, int u, int width,
+	                                              int numSamples, int[] indices, float[] weights) {
+		for (int x = 0; x < width; x++) {
+			float sample0 = 0;
+			float sample1 = 0;
+			float sample2 = 0;
+			for (int i = 0; i < numSamples; i++) {
+				int   arrPixel = x * 3 + indices[i];
+				float weight   = weights[i];
+
+				sample0 += in[arrPixel] * weight;
+				sample1 += in[arrPixel + 1] * weight;
+				sample2 += in[arrPixel + 2] * weight;
+			}
+			out[u++] = (short)sample0;
+			out[u++] = (short)sample1;
+			out[u++] = (short)sample2;
+		}
+	}
+
+	private static void verticalResample4Channels(short[] in, short[] out, int u, int width,
+	                                              int numSamples, int[] indices, float[] weights) {
+		for (int x = 0; x < width; x++) {
+			float sample0 = 0;
+			float sample1 = 0;
+			float sample2 = 0;
+			float sample3 = 0;
+			for (int i = 0; i < numSamples; i++) {
+				int   arrPixel = x * 4 + indices[i];
+				float weight   = weights[i];
+
+				sample0 += in[arrPixel] * weight;
+				sample1 += in[arrPixel + 1] * weight;
+				sample2 += in[arrPixel + 2] * weight;
+				sample3 += in[arrPixel + 3] * weight;
+			}
+			out[u++] = (short)sample0;
+			out[u++] = (short)sample1;
+			out[u++] = (short)sample2;
+			out[u++] = (short)sample3;
+		}
+	}
+
+	@Override
+	public void resampleHorizontally(short[] in, int inOffset, short[] out, int outOffset,
+	                                 int dstWidth, int numChannels,
+	                                 int numSamples, int[] starts, int[] weightOffsets, int[] weights) {
+		switch (numChannels) {
+			case 1:
+				horizontalResample1Channel(in, inOffset, out, outOffset, dstWidth,
+				                           numSamples, starts, weightOffsets, weights);
+				break;
+			case 2:
+				horizontalResample2Channels(in, inOffset, out, outOffset, dstWidth,
+				                            numSamples, starts, weightOffsets, weights);
+				break;
+			case 3:
+				horizontalResample3Channels(in, inOffset, out, outOffset, dstWidth,
+				                            numSamples, starts, weightOffsets, weights);
+				break;
+			case 4:
+				horizontalResample4Channels(in, inOffset, out, outOffset, dstWidth,
+				                            numSamples, starts, weightOffsets, weights);
+				break;
+			default:
+				throw new AssertionError("numChannels: " + numChannels);
+		}
+	}
+
+	@Override
+	public void resampleVertically(short[] in, short[] out, int outOffset,
+	                               int width, int numChannels,
+	                               int numSamples, int[] indices, int[] weights) {
+		switch (numChannels) {
+			case 1:
+				verticalResample1Channel(in, out, outOffset, width, numSamples, indices, weights);
+				break;
+			case 2:
+				verticalResample2Channels(in, out, outOffset, width, numSamples, indices, weights);
+				break;
+			case 3:
+				verticalResample3Channels(in, out, outOffset, width, numSamples, indices, weights);
+				break;
+			case 4:
+				verticalResample4Channels(in, out, outOffset, width, numSamples, indices, weights);
+				break;
+			default:
+				throw new AssertionError("numChannels: " + numChannels);
+		}
+	}
+
+	private static void horizontalResample1Channel(short[] in, int offset, short[] out, int u, int dstWidth,
+	                                               int numSamples, int[] starts, int[] weightOffsets, int[] weights) {
+		for (int x = 0; x < dstWidth; x++) {
+			int   sample0  = ROUNDING;
+			int   arrPixel = offset + starts[x];
+			int   index    = weightOffsets[x];
+			for (int i = numSamples; i > 0; i--) {
+				sample0 += in[arrPixel] * weights[index];
+				arrPixel++;
+				index++;
+			}
+			out[u++] = (short)(sample0 >> WEIGHT_PRECISION);
+		}
+	}
+
+	private static void horizontalResample2Channels(short[] in, int offset, short[] out, int u, int dstWidth,
+	                                                int numSamples, int[] starts, int[] weightOffsets, int[] weights) {
+		for (int x = 0; x < dstWidth; x++) {
+			int   sample0  = ROUNDING;
+			int   sample1  = ROUNDING;
+			int   arrPixel = offset + starts[x];
+			int   index    = weightOffsets[x];
+			for (int i = numSamples; i > 0; i--) {
+				int   weight = weights[index];
+				index++;
+
+				sample0 += in[arrPixel] * weight;
+				sample1 += in[arrPixel + 1] * weight;
+				arrPixel += 2;
+			}
+			out[u++] = (short)(sample0 >> WEIGHT_PRECISION);
+			out[u++] = (short)(sample1 >> WEIGHT_PRECISION);
+		}
+	}
+
+	private static void horizontalResample3Channels(short[] in, int offset, short[] out, int u, int dstWidth,
+	                                                int numSamples, int[] starts, int[] weightOffsets, int[] weights) {
+		for (int x = 0; x < dstWidth; x++) {
+			int   sample0  = ROUNDING;
+			int   sample1  = ROUNDING;
+			int   sample2  = ROUNDING;
+			int   arrPixel = offset + starts[x];
+			int   index    = weightOffsets[x];
+			for (int i = numSamples; i > 0; i--) {
+				int   weight = weights[index];
+				index++;
+
+				sample0 += in[arrPixel] * weight;
+				sample1 += in[arrPixel + 1] * weight;
+				sample2 += in[arrPixel + 2] * weight;
+				arrPixel += 3;
+			}
+			out[u++] = (short)(sample0 >> WEIGHT_PRECISION);
+			out[u++] = (short)(sample1 >> WEIGHT_PRECISION);
+			out[u++] = (short)(sample2 >> WEIGHT_PRECISION);
+		}
+	}
+
+	private static void horizontalResample4Channels(short[] in, int offset, short[] out, int u, int dstWidth,
+	                                                int numSamples, int[] starts, int[] weightOffsets, int[] weights) {
+		for (int x = 0; x < dstWidth; x++) {
+			int   sample0  = ROUNDING;
+			int   sample1  = ROUNDING;
+			int   sample2  = ROUNDING;
+			int   sample3  = ROUNDING;
+			int   arrPixel = offset + starts[x];
+			int   index    = weightOffsets[x];
+			for (int i = numSamples; i > 0; i--) {
+				int   weight = weights[index];
+				index++;
+
+				sample0 += in[arrPixel] * weight;
+				sample1 += in[arrPixel + 1] * weight;
+				sample2 += in[arrPixel + 2] * weight;
+				sample3 += in[arrPixel + 3] * weight;
+				arrPixel += 4;
+			}
+			out[u++] = (short)(sample0 >> WEIGHT_PRECISION);
+			out[u++] = (short)(sample1 >> WEIGHT_PRECISION);
+			out[u++] = (short)(sample2 >> WEIGHT_PRECISION);
+			out[u++] = (short)(sample3 >> WEIGHT_PRECISION);
+		}
+	}
+
+	private static void verticalResample1Channel(short[] in, short[] out, int u, int width,
+	                                             int numSamples, int[] indices, int[] weights) {
+		for (int x = 0; x < width; x++) {
+			int   sample0 = ROUNDING;
+			for (int i = 0; i < numSamples; i++) {
+				sample0 += in[x + indices[i]] * weights[i];
+			}
+			out[u++] = (short)(sample0 >> WEIGHT_PRECISION);
+		}
+	}
+
+	private static void verticalResample2Channels(short[] in, short[] out, int u, int width,
+	                                              int numSamples, int[] indices, int[] weights) {
+		for (int x = 0; x < width; x++) {
+			int   sample0 = ROUNDING;
+			int   sample1 = ROUNDING;
+			for (int i = 0; i < numSamples; i++) {
+				int   arrPixel = x * 2 + indices[i];
+				int   weight   = weights[i];
+
+				sample0 += in[arrPixel] * weight;
+				sample1 += in[arrPixel + 1] * weight;
+			}
+			out[u++] = (short)(sample0 >> WEIGHT_PRECISION);
+			out[u++] = (short)(sample1 >> WEIGHT_PRECISION);
+		}
+	}
+
+	private static void verticalResample3Channels(short[] in, short[] out, int u, int width,
+	                                              int numSamples, int[] indices, int[] weights) {
+		for (int x = 0; x < width; x++) {
+			int   sample0 = ROUNDING;
+			int   sample1 = ROUNDING;
+			int   sample2 = ROUNDING;
+			for (int i = 0; i < numSamples; i++) {
+				int   arrPixel = x * 3 + indices[i];
+				int   weight   = weights[i];
+
+				sample0 += in[arrPixel] * weight;
+				sample1 += in[arrPixel + 1] * weight;
+				sample2 += in[arrPixel + 2] * weight;
+			}
+			out[u++] = (short)(sample0 >> WEIGHT_PRECISION);
+			out[u++] = (short)(sample1 >> WEIGHT_PRECISION);
+			out[u++] = (short)(sample2 >> WEIGHT_PRECISION);
+		}
+	}
+
+	private static void verticalResample4Channels(short[] in, short[] out, int u, int width,
+	                                              int numSamples, int[] indices, int[] weights) {
+		for (int x = 0; x < width; x++) {
+			int   sample0 = ROUNDING;
+			int   sample1 = ROUNDING;
+			int   sample2 = ROUNDING;
+			int   sample3 = ROUNDING;
+			for (int i = 0; i < numSamples; i++) {
+				int   arrPixel = x * 4 + indices[i];
+				int   weight   = weights[i];
+
+				sample0 += in[arrPixel] * weight;
+				sample1 += in[arrPixel + 1] * weight;
+				sample2 += in[arrPixel + 2] * weight;
+				sample3 += in[arrPixel + 3] * weight;
+			}
+			out[u++] = (short)(sample0 >> WEIGHT_PRECISION);
+			out[u++] = (short)(sample1 >> WEIGHT_PRECISION);
+			out[u++] = (short)(sample2 >> WEIGHT_PRECISION);
+			out[u++] = (short)(sample3 >> WEIGHT_PRECISION);
+		}
+	}
+}
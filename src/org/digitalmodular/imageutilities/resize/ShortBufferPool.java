@@ -0,0 +1,209 @@
+/*
+ * This file is part of ImageUtilities.
+ *
+ * Copyleft 2016 Mark Jeronimus. All Rights Reversed.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ImageUtilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.digitalmodular.imageutilities.resize;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * A pool of {@code short[]} buffers, to reuse large work buffers across resizes instead of allocating new ones each
+ * time. This prevents most allocations of large arrays (which may be allocated directly in the old generation) when
+ * resizing many images of the same size.
+ * <p>
+ * Buffers are grouped in size classes of 1/8 of a power of two, so a leased buffer may be up to 12.5% longer than
+ * requested, and buffers for slightly different sizes can be reused. The contents of a leased buffer are undefined.
+ * <p>
+ * The total size of the retained buffers is capped. When a released buffer doesn't fit, the least recently released
+ * buffers are evicted. Optionally, the buffers are retained through {@link SoftReference}s, so the garbage collector
+ * may clear them when memory runs low.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Mark Jeronimus
+ */
+// Created 2026-10-16
+public final class ShortBufferPool {
+	private static final ShortBufferPool SHARED = new ShortBufferPool(256L << 20, true);
+
+	/** The largest array length that is safe on all JVMs */
+	private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+	/** Most recently released first */
+	private final Deque<Entry> buffers = new ArrayDeque<>();
+
+	private long    maxBytes;
+	private boolean softReferences;
+
+	private long retainedBytes = 0;
+	private long numLeases     = 0;
+	private long numHits       = 0;
+
+	/**
+	 * @param maxBytes       the maximum total size of the retained buffers
+	 * @param softReferences whether to retain the buffers through soft references
+	 */
+	public ShortBufferPool(long maxBytes, boolean softReferences) {
+		setMaxBytes(maxBytes);
+		this.softReferences = softReferences;
+	}
+
+	/**
+	 * Returns the pool that is shared by all resamplers that aren't given another pool. It retains up to 256 MiB,
+	 * through soft references.
+	 */
+	public static ShortBufferPool getShared() { return SHARED; }
+
+	public synchronized long getMaxBytes() { return maxBytes; }
+
+	/**
+	 * Sets the maximum total size of the retained buffers. When lowered, buffers are evicted immediately.
+	 */
+	public synchronized void setMaxBytes(long maxBytes) {
+		if (maxBytes < 0)
+			throw new IllegalArgumentException("maxBytes can't be negative: " + maxBytes);
+
+		this.maxBytes = maxBytes;
+		evict();
+	}
+
+	public synchronized boolean isSoftReferences() { return softReferences; }
+
+	/**
+	 * Sets whether to retain buffers through soft references. Applies to buffers that are released afterwards.
+	 */
+	public synchronized void setSoftReferences(boolean softReferences) { this.softReferences = softReferences; }
+
+	/**
+	 * Returns the total size of the retained buffers, including those that may have been cleared by the garbage
+	 * collector since.
+	 */
+	public synchronized long getRetainedBytes() { return retainedBytes; }
+
+	public synchronized long getNumLeases() { return numLeases; }
+
+	/**
+	 * Returns how many leases were served with a retained buffer.
+	 */
+	public synchronized long getNumHits() { return numHits; }
+
+	/**
+	 * Evicts all retained buffers.
+	 */
+	public synchronized void clear() {
+		buffers.clear();
+		retainedBytes = 0;
+	}
+
+	/**
+	 * Returns a buffer of at least the specified length, with undefined contents. It should be
+	 * {@link #release(short[]) released} when it's not used anymore.
+	 */
+	public short[] lease(int minLength) {
+		if (minLength < 0)
+			throw new IllegalArgumentException("minLength can't be negative: " + minLength);
+
+		int length = sizeClass(minLength);
+
+		short[] buffer = take(length);
+		if (buffer != null)
+			return buffer;
+
+		// Allocate outside of the lock
+		return new short[length];
+	}
+
+	private synchronized short[] take(int length) {
+		numLeases++;
+
+		for (Iterator<Entry> iter = buffers.iterator(); iter.hasNext(); ) {
+			Entry   entry  = iter.next();
+			short[] buffer = entry.get();
+
+			if (buffer == null) {
+				// Cleared by the garbage collector
+				iter.remove();
+				retainedBytes -= entry.bytes;
+			} else if (buffer.length == length) {
+				iter.remove();
+				retainedBytes -= entry.bytes;
+				numHits++;
+				return buffer;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns a buffer to the pool. It may not be used anymore afterwards. Buffers of which the length isn't a size
+	 * class (so they weren't leased), or that are too large for this pool, are ignored.
+	 */
+	public synchronized void release(short[] buffer) {
+		if (buffer == null || buffer.length != sizeClass(buffer.length))
+			return;
+
+		long bytes = buffer.length * 2L;
+		if (bytes > maxBytes)
+			return;
+
+		buffers.addFirst(new Entry(buffer, softReferences));
+		retainedBytes += bytes;
+		evict();
+	}
+
+	private void evict() {
+		while (retainedBytes > maxBytes)
+			retainedBytes -= buffers.removeLast().bytes;
+	}
+
+	/**
+	 * Rounds the length up to a multiple of 1/8 of the largest power of two not greater than the length.
+	 */
+	static int sizeClass(int length) {
+		long step    = Math.max(1, Integer.highestOneBit(length) >> 3);
+		long rounded = (length + step - 1) / step * step;
+		return rounded > MAX_ARRAY_LENGTH ? length : (int)rounded;
+	}
+
+	private static final class Entry {
+		private final short[]                strongBuffer;
+		private final SoftReference<short[]> softBuffer;
+		private final long                   bytes;
+
+		private Entry(short[] buffer, boolean soft) {
+			strongBuffer = soft ? null : buffer;
+			softBuffer = soft ? new SoftReference<>(buffer) : null;
+			bytes = buffer.length * 2L;
+		}
+
+		private short[] get() {
+			return strongBuffer != null ? strongBuffer : softBuffer.get();
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is part of ImageUtilities.
+ *
+ * Copyleft 2016 Mark Jeronimus. All Rights Reversed.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ImageUtilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.digitalmodular.imageutilities.resize;
+
+/**
+ * The inner loops of {@link ImageResamplerShort}. Each call resamples a single row of samples, in the internal
+ * 15-bit format.
+ *
+ * @author Mark Jeronimus
+ */
+// Created 2026-10-16 Extracted from ImageResamplerShort
+// Changed 2026-10-16 Horizontal resampling takes the start index of each output pixel
+// Changed 2026-10-16 Horizontal resampling takes the weight offset of each output pixel
+interface ShortResamplingKernel {
+	/**
+	 * Resamples one row in the horizontal direction.
+	 *
+	 * @param inOffset      the index of the first sample of the input row
+	 * @param outOffset     the index of the first sample of the output row
+	 * @param dstWidth      the number of pixels in the output row
+	 * @param starts        the index of the first input sample, relative to {@code inOffset}, of each output pixel.
+	 *                      The other input samples follow at intervals of {@code numChannels}.
+	 * @param weightOffsets the index in {@code weights} of the first weight of each output pixel
+	 * @param weights       the input sample weights, as rows of {@code numSamples} weights that can be shared
+	 *                      between output pixels
+	 */
+	void resampleHorizontally(short[] in, int inOffset, short[] out, int outOffset,
+	                          int dstWidth, int numChannels,
+	                          int numSamples, int[] starts, int[] weightOffsets, float[] weights);
+
+	/**
+	 * Resamples one row in the vertical direction.
+	 *
+	 * @param outOffset the index of the first sample of the output row
+	 * @param width     the number of pixels in the row
+	 * @param indices   the input sample indices of the first sample of each contributing input row
+	 * @param weights   the input sample weights of each contributing input row
+	 */
+	void resampleVertically(short[] in, short[] out, int outOffset,
+	                        int width, int numChannels,
+	                        int numSamples, int[] indices, float[] weights);
+
+	/**
+	 * Resamples one row in the horizontal direction, with fixed-point weights. Samples are accumulated in
+	 * {@code int}, and rounded once at the end.
+	 *
+	 * @param weights the input sample weights, as rows of {@code numSamples} weights, with
+	 *                {@value SamplingDataCalculator#WEIGHT_PRECISION} fractional bits
+	 * @see #resampleHorizontally(short[], int, short[], int, int, int, int, int[], int[], float[])
+	 */
+	void resampleHorizontally(short[] in, int inOffset, short[] out, int outOffset,
+	                          int dstWidth, int numChannels,
+	                          int numSamples, int[] starts, int[] weightOffsets, int[] weights);
+
+	/**
+	 * Resamples one row in the vertical direction, with fixed-point weights. Samples are accumulated in {@code int},
+	 * and rounded once at the end.
+	 *
+	 * @param weights the input sample weights of each contributing input row, with
+	 *                {@value SamplingDataCalculator#WEIGHT_PRECISION} fractional bits
+	 * @see #resampleVertically(short[], short[], int, int, int, int, int[], float[])
+	 */
+	void resampleVertically(short[] in, short[] out, int outOffset,
+	                        int width, int numChannels,
+	                        int numSamples, int[] indices, int[] weights);
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of ImageUtilities.
+ *
+ * Copyleft 2016 Mark Jeronimus. All Rights Reversed.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ImageUtilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.digitalmodular.imageutilities.resize;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Selects the fastest {@link ShortResamplingKernel} available on this JVM, optionally for a specific number of
+ * samples.
+ * <p>
+ * When the {@code jdk.incubator.vector} module is present (e.g. with {@code --add-modules jdk.incubator.vector}),
+ * {@code VectorShortResamplingKernel} is used. That class lives in the separately compiled {@code src-vector} source
+ * directory, so the rest of the library compiles without the incubator module, and it's loaded reflectively, so the
+ * rest of the library never links against it. Otherwise {@link ScalarShortResamplingKernel} is used.
+ *
+ * @author Mark Jeronimus
+ */
+// Created 2026-10-16
+// Changed 2026-10-16 Added unrolled kernels
+// Changed 2026-10-16 Moved VectorShortResamplingKernel to its own source directory
+enum ShortResamplingKernels {
+	;
+
+	private static final String VECTOR_KERNEL_CLASS_NAME =
+			"org.digitalmodular.imageutilities.resize.VectorShortResamplingKernel";
+
+	static final ShortResamplingKernel SCALAR = new ScalarShortResamplingKernel();
+	static final ShortResamplingKernel VECTOR = loadVectorKernel();
+
+	/**
+	 * Returns the vector kernel if available, or the scalar kernel otherwise.
+	 */
+	static ShortResamplingKernel getDefault() {
+		return VECTOR != null ? VECTOR : SCALAR;
+	}
+
+	/**
+	 * Returns the fastest kernel for the given number of samples. This is an {@link UnrolledShortResamplingKernel}
+	 * for the common small numbers of samples, or the {@link #getDefault() default} kernel otherwise.
+	 */
+	static ShortResamplingKernel forNumSamples(int numSamples) {
+		ShortResamplingKernel kernel = UnrolledShortResamplingKernel.forNumSamples(numSamples);
+		return kernel != null ? kernel : getDefault();
+	}
+
+	private static ShortResamplingKernel loadVectorKernel() {
+		try {
+			ShortResamplingKernel kernel = (ShortResamplingKernel)Class.forName(VECTOR_KERNEL_CLASS_NAME)
+			                                                           .getDeclaredConstructor()
+			                                                           .newInstance();
+
+			if (Logger.getGlobal().isLoggable(Level.FINE))
+				Logger.getGlobal().fine("Using " + kernel);
+
+			return kernel;
+		} catch (ReflectiveOperationException | LinkageError ex) {
+			// Module jdk.incubator.vector or the classes of src-vector not present
+			if (Logger.getGlobal().isLoggable(Level.FINE))
+				Logger.getGlobal().fine("Vector API not available: " + ex);
+
+			return null;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of ImageUtilities.
+ *
+ * Copyleft 2016 Mark Jeronimus. All Rights Reversed.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ImageUtilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.digitalmodular.imageutilities.resize;
+
+/**
+ * A work buffer of samples in the internal 15-bit format of {@link ImageResamplerShort}, addressed with {@code long}
+ * indices, so it can hold more than 2<sup>31</sup> samples.
+ * <p>
+ * Buffers that are backed by a Java array expose it through {@link #array()}, so the resampling loops can access it
+ * directly. Other buffers are accessed one row at a time, through {@link #get(long, short[], int, int)} and
+ * {@link #set(long, short[], int, int)}.
+ * <p>
+ * Create instances through {@link ShortSampleBuffers}.
+ *
+ * @author Mark Jeronimus
+ */
+// Created 2026-10-16
+interface ShortSampleBuffer extends AutoCloseable {
+	/**
+	 * The number of samples. This can be more than requested.
+	 */
+	long length();
+
+	/**
+	 * Returns the backing array, or {@code null} when this buffer is not backed by an array.
+	 */
+	short[] array();
+
+	/**
+	 * Copies samples from this buffer to an array.
+	 *
+	 * @param index  the index of the first sample in this buffer
+	 * @param offset the index of the first sample in {@code dst}
+	 */
+	void get(long index, short[] dst, int offset, int length);
+
+	/**
+	 * Copies samples from an array to this buffer.
+	 *
+	 * @param index  the index of the first sample in this buffer
+	 * @param offset the index of the first sample in {@code src}
+	 */
+	void set(long index, short[] src, int offset, int length);
+
+	/**
+	 * Frees the memory of this buffer, if it's not managed by the garbage collector. It may not be used anymore
+	 * afterwards.
+	 */
+	@Override
+	void close();
+}
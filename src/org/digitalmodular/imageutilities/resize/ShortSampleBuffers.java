@@ -0,0 +1,113 @@
+/*
+ * This file is part of ImageUtilities.
+ *
+ * Copyleft 2016 Mark Jeronimus. All Rights Reversed.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ImageUtilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.digitalmodular.imageutilities.resize;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Creates {@link ShortSampleBuffer}s, either on the heap or off-heap.
+ * <p>
+ * Off-heap buffers ({@code OffHeapShortSampleBuffer}) need the {@code java.lang.foreign} package (Java 22, or Java 21
+ * with {@code --enable-preview}). That class lives in the separately compiled {@code src-java22} source directory, so
+ * the rest of the library still compiles on older JDKs, and it's loaded reflectively, so the rest of the library never
+ * links against it. When it's not on the class path, only the heap buffers are available.
+ *
+ * @author Mark Jeronimus
+ */
+// Created 2026-10-16
+// Changed 2026-10-16 Moved OffHeapShortSampleBuffer to its own source directory
+enum ShortSampleBuffers {
+	;
+
+	private static final String OFF_HEAP_BUFFER_CLASS_NAME =
+			"org.digitalmodular.imageutilities.resize.OffHeapShortSampleBuffer";
+
+	/** The largest array length that is safe on all JVMs */
+	static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+	private static final Constructor<? extends ShortSampleBuffer> OFF_HEAP_CONSTRUCTOR = loadOffHeapConstructor();
+
+	static boolean isOffHeapAvailable() {
+		return OFF_HEAP_CONSTRUCTOR != null;
+	}
+
+	static ShortSampleBuffer wrap(short[] array) {
+		return new ArrayShortSampleBuffer(array);
+	}
+
+	/**
+	 * Allocates a buffer in native memory. It should be {@link ShortSampleBuffer#close() closed} when it's not used
+	 * anymore.
+	 *
+	 * @throws UnsupportedOperationException when off-heap buffers are not available on this JVM
+	 */
+	static ShortSampleBuffer allocateOffHeap(long length) {
+		if (OFF_HEAP_CONSTRUCTOR == null)
+			throw new UnsupportedOperationException(
+					"Off-heap buffers need java.lang.foreign. Buffer length: " + length);
+
+		try {
+			return OFF_HEAP_CONSTRUCTOR.newInstance(length);
+		} catch (InvocationTargetException ex) {
+			Throwable th = ex.getCause();
+			// Check if it is one of the unchecked throwables
+			if (th instanceof RuntimeException) {
+				throw (RuntimeException)th;
+			} else if (th instanceof Error) {
+				//noinspection ProhibitedExceptionThrown
+				throw (Error)th;
+			} else {
+				throw new AssertionError("Unhandled checked exception", th);
+			}
+		} catch (ReflectiveOperationException ex) {
+			throw new AssertionError(ex);
+		}
+	}
+
+	private static Constructor<? extends ShortSampleBuffer> loadOffHeapConstructor() {
+		try {
+			Constructor<? extends ShortSampleBuffer> constructor =
+					Class.forName(OFF_HEAP_BUFFER_CLASS_NAME)
+					     .asSubclass(ShortSampleBuffer.class)
+					     .getDeclaredConstructor(long.class);
+
+			// Allocate once, so a JVM without the foreign memory API fails here instead of during a resize
+			constructor.newInstance(0L).close();
+
+			return constructor;
+		} catch (ReflectiveOperationException | LinkageError ex) {
+			// Package java.lang.foreign not present
+			if (Logger.getGlobal().isLoggable(Level.FINE))
+				Logger.getGlobal().fine("Off-heap buffers not available: " + ex);
+
+			return null;
+		}
+	}
+}
@@ -0,0 +1,315 @@
+/*
+ * This file is part of ImageUtilities.
+ *
+ * Copyleft 2016 Mark Jeronimus. All Rights Reversed.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ImageUtilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.digitalmodular.imageutilities.resize;
+
+import static org.digitalmodular.imageutilities.resize.SamplingDataCalculator.WEIGHT_PRECISION;
+
+/**
+ * Resampling loops with the taps fully unrolled, for the most common numbers of samples: 2 (e.g. Linear), 4 (e.g.
+ * Cubic) and 6 (e.g. Lanczos3), when enlarging. The loop over the channels of a pixel remains.
+ * <p>
+ * Each kernel only works for its own number of samples (the {@code numSamples} parameter is ignored). Use
+ * {@link ShortResamplingKernels#forNumSamples(int)} to select one. Results are identical to
+ * {@link ScalarShortResamplingKernel}.
+ *
+ * @author Mark Jeronimus
+ */
+// Created 2026-10-16
+// Changed 2026-10-16 Horizontal resampling takes the start index of each output pixel
+// Changed 2026-10-16 Horizontal resampling takes the weight offset of each output pixel
+enum UnrolledShortResamplingKernel implements ShortResamplingKernel {
+	TAPS_2 {
+		@Override
+		public void resampleHorizontally(short[] in, int inOffset, short[] out, int outOffset,
+		                                 int dstWidth, int numChannels,
+		                                 int numSamples, int[] starts, int[] weightOffsets, float[] weights) {
+			int u = outOffset;
+			for (int x = 0; x < dstWidth; x++) {
+				int index = weightOffsets[x];
+
+				int   p0 = inOffset + starts[x];
+				int   p1 = p0 + numChannels;
+				float w0 = weights[index];
+				float w1 = weights[index + 1];
+
+				for (int c = 0; c < numChannels; c++)
+					out[u++] = (short)(in[p0 + c] * w0 + in[p1 + c] * w1);
+			}
+		}
+
+		@Override
+		public void resampleVertically(short[] in, short[] out, int outOffset,
+		                               int width, int numChannels,
+		                               int numSamples, int[] indices, float[] weights) {
+			int   i0 = indices[0];
+			int   i1 = indices[1];
+			float w0 = weights[0];
+			float w1 = weights[1];
+
+			int rowLength = width * numChannels;
+			for (int x = 0; x < rowLength; x++)
+				out[outOffset + x] = (short)(in[x + i0] * w0 + in[x + i1] * w1);
+		}
+
+		@Override
+		public void resampleHorizontally(short[] in, int inOffset, short[] out, int outOffset,
+		                                 int dstWidth, int numChannels,
+		                                 int numSamples, int[] starts, int[] weightOffsets, int[] weights) {
+			int u = outOffset;
+			for (int x = 0; x < dstWidth; x++) {
+				int index = weightOffsets[x];
+
+				int p0 = inOffset + starts[x];
+				int p1 = p0 + numChannels;
+				int w0 = weights[index];
+				int w1 = weights[index + 1];
+
+				for (int c = 0; c < numChannels; c++)
+					out[u++] = (short)((ROUNDING + in[p0 + c] * w0 + in[p1 + c] * w1) >> WEIGHT_PRECISION);
+			}
+		}
+
+		@Override
+		public void resampleVertically(short[] in, short[] out, int outOffset,
+		                               int width, int numChannels,
+		                               int numSamples, int[] indices, int[] weights) {
+			int i0 = indices[0];
+			int i1 = indices[1];
+			int w0 = weights[0];
+			int w1 = weights[1];
+
+			int rowLength = width * numChannels;
+			for (int x = 0; x < rowLength; x++)
+				out[outOffset + x] = (short)((ROUNDING + in[x + i0] * w0 + in[x + i1] * w1) >> WEIGHT_PRECISION);
+		}
+	},
+
+	TAPS_4 {
+		@Override
+		public void resampleHorizontally(short[] in, int inOffset, short[] out, int outOffset,
+		                                 int dstWidth, int numChannels,
+		                                 int numSamples, int[] starts, int[] weightOffsets, float[] weights) {
+			int u = outOffset;
+			for (int x = 0; x < dstWidth; x++) {
+				int index = weightOffsets[x];
+
+				int   p0 = inOffset + starts[x];
+				int   p1 = p0 + numChannels;
+				int   p2 = p1 + numChannels;
+				int   p3 = p2 + numChannels;
+				float w0 = weights[index];
+				float w1 = weights[index + 1];
+				float w2 = weights[index + 2];
+				float w3 = weights[index + 3];
+
+				for (int c = 0; c < numChannels; c++)
+					out[u++] = (short)(in[p0 + c] * w0 + in[p1 + c] * w1 + in[p2 + c] * w2 + in[p3 + c] * w3);
+			}
+		}
+
+		@Override
+		public void resampleVertically(short[] in, short[] out, int outOffset,
+		                               int width, int numChannels,
+		                               int numSamples, int[] indices, float[] weights) {
+			int   i0 = indices[0];
+			int   i1 = indices[1];
+			int   i2 = indices[2];
+			int   i3 = indices[3];
+			float w0 = weights[0];
+			float w1 = weights[1];
+			float w2 = weights[2];
+			float w3 = weights[3];
+
+			int rowLength = width * numChannels;
+			for (int x = 0; x < rowLength; x++)
+				out[outOffset + x] = (short)(in[x + i0] * w0 + in[x + i1] * w1 + in[x + i2] * w2 + in[x + i3] * w3);
+		}
+
+		@Override
+		public void resampleHorizontally(short[] in, int inOffset, short[] out, int outOffset,
+		                                 int dstWidth, int numChannels,
+		                                 int numSamples, int[] starts, int[] weightOffsets, int[] weights) {
+			int u = outOffset;
+			for (int x = 0; x < dstWidth; x++) {
+				int index = weightOffsets[x];
+
+				int p0 = inOffset + starts[x];
+				int p1 = p0 + numChannels;
+				int p2 = p1 + numChannels;
+				int p3 = p2 + numChannels;
+				int w0 = weights[index];
+				int w1 = weights[index + 1];
+				int w2 = weights[index + 2];
+				int w3 = weights[index + 3];
+
+				for (int c = 0; c < numChannels; c++)
+					out[u++] = (short)((ROUNDING + in[p0 + c] * w0 + in[p1 + c] * w1 + in[p2 + c] * w2
+					                    + in[p3 + c] * w3) >> WEIGHT_PRECISION);
+			}
+		}
+
+		@Override
+		public void resampleVertically(short[] in, short[] out, int outOffset,
+		                               int width, int numChannels,
+		                               int numSamples, int[] indices, int[] weights) {
+			int i0 = indices[0];
+			int i1 = indices[1];
+			int i2 = indices[2];
+			int i3 = indices[3];
+			int w0 = weights[0];
+			int w1 = weights[1];
+			int w2 = weights[2];
+			int w3 = weights[3];
+
+			int rowLength = width * numChannels;
+			for (int x = 0; x < rowLength; x++)
+				out[outOffset + x] = (short)((ROUNDING + in[x + i0] * w0 + in[x + i1] * w1 + in[x + i2] * w2
+				                              + in[x + i3] * w3) >> WEIGHT_PRECISION);
+		}
+	},
+
+	TAPS_6 {
+		@Override
+		public void resampleHorizontally(short[] in, int inOffset, short[] out, int outOffset,
+		                                 int dstWidth, int numChannels,
+		                                 int numSamples, int[] starts, int[] weightOffsets, float[] weights) {
+			int u = outOffset;
+			for (int x = 0; x < dstWidth; x++) {
+				int index = weightOffsets[x];
+
+				int   p0 = inOffset + starts[x];
+				int   p1 = p0 + numChannels;
+				int   p2 = p1 + numChannels;
+				int   p3 = p2 + numChannels;
+				int   p4 = p3 + numChannels;
+				int   p5 = p4 + numChannels;
+				float w0 = weights[index];
+				float w1 = weights[index + 1];
+				float w2 = weights[index + 2];
+				float w3 = weights[index + 3];
+				float w4 = weights[index + 4];
+				float w5 = weights[index + 5];
+
+				for (int c = 0; c < numChannels; c++)
+					out[u++] = (short)(in[p0 + c] * w0 + in[p1 + c] * w1 + in[p2 + c] * w2 + in[p3 + c] * w3
+					                   + in[p4 + c] * w4 + in[p5 + c] * w5);
+			}
+		}
+
+		@Override
+		public void resampleVertically(short[] in, short[] out, int outOffset,
+		                               int width, int numChannels,
+		                               int numSamples, int[] indices, float[] weights) {
+			int   i0 = indices[0];
+			int   i1 = indices[1];
+			int   i2 = indices[2];
+			int   i3 = indices[3];
+			int   i4 = indices[4];
+			int   i5 = indices[5];
+			float w0 = weights[0];
+			float w1 = weights[1];
+			float w2 = weights[2];
+			float w3 = weights[3];
+			float w4 = weights[4];
+			float w5 = weights[5];
+
+			int rowLength = width * numChannels;
+			for (int x = 0; x < rowLength; x++)
+				out[outOffset + x] = (short)(in[x + i0] * w0 + in[x + i1] * w1 + in[x + i2] * w2 + in[x + i3] * w3
+				                             + in[x + i4] * w4 + in[x + i5] * w5);
+		}
+
+		@Override
+		public void resampleHorizontally(short[] in, int inOffset, short[] out, int outOffset,
+		                                 int dstWidth, int numChannels,
+		                                 int numSamples, int[] starts, int[] weightOffsets, int[] weights) {
+			int u = outOffset;
+			for (int x = 0; x < dstWidth; x++) {
+				int index = weightOffsets[x];
+
+				int p0 = inOffset + starts[x];
+				int p1 = p0 + numChannels;
+				int p2 = p1 + numChannels;
+				int p3 = p2 + numChannels;
+				int p4 = p3 + numChannels;
+				int p5 = p4 + numChannels;
+				int w0 = weights[index];
+				int w1 = weights[index + 1];
+				int w2 = weights[index + 2];
+				int w3 = weights[index + 3];
+				int w4 = weights[index + 4];
+				int w5 = weights[index + 5];
+
+				for (int c = 0; c < numChannels; c++)
+					out[u++] = (short)((ROUNDING + in[p0 + c] * w0 + in[p1 + c] * w1 + in[p2 + c] * w2 + in[p3 + c] * w3
+					                    + in[p4 + c] * w4 + in[p5 + c] * w5) >> WEIGHT_PRECISION);
+			}
+		}
+
+		@Override
+		public void resampleVertically(short[] in, short[] out, int outOffset,
+		                               int width, int numChannels,
+		                               int numSamples, int[] indices, int[] weights) {
+			int i0 = indices[0];
+			int i1 = indices[1];
+			int i2 = indices[2];
+			int i3 = indices[3];
+			int i4 = indices[4];
+			int i5 = indices[5];
+			int w0 = weights[0];
+			int w1 = weights[1];
+			int w2 = weights[2];
+			int w3 = weights[3];
+			int w4 = weights[4];
+			int w5 = weights[5];
+
+			int rowLength = width * numChannels;
+			for (int x = 0; x < rowLength; x++)
+				out[outOffset + x] = (short)((ROUNDING + in[x + i0] * w0 + in[x + i1] * w1 + in[x + i2] * w2
+				                              + in[x + i3] * w3 + in[x + i4] * w4
+				                              + in[x + i5] * w5) >> WEIGHT_PRECISION);
+		}
+	};
+
+	private static final int ROUNDING = 1 << (WEIGHT_PRECISION - 1);
+
+	/**
+	 * Returns the kernel for the given number of samples, or {@code null} if there is none.
+	 */
+	static UnrolledShortResamplingKernel forNumSamples(int numSamples) {
+		switch (numSamples) {
+			case 2:
+				return TAPS_2;
+			case 4:
+				return TAPS_4;
+			case 6:
+				return TAPS_6;
+			default:
+				return null;
+		}
+	}
+}
@@ -29,10 +29,14 @@ package org.digitalmodular.imageutilities.resize.filter;
 /**
  * Box curve. Radius = 0.5. No under/overshoot. For shrinking this works as an area-averaging filter, for enlarging
  * as a nearest-neighbor filter.
+ * <p>
+ * When shrinking, the resamplers don't sample this curve, but use the exact fraction of each input pixel that's
+ * covered by the output pixel.
  *
  * @author Mark Jeronimus
  */
 // Created 2015-08-14
+// Changed 2026-10-16 Shrinking uses exact coverage
 public class BoxResamplingCurve implements ResamplingCurve {
 	public static final BoxResamplingCurve INSTANCE = new BoxResamplingCurve();
 